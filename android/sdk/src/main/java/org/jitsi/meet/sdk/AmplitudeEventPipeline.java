@@ -0,0 +1,394 @@
+/*
+ * Copyright © 2020. cabi LLC. All rights reserved.
+ */
+
+package org.jitsi.meet.sdk;
+
+import com.amplitude.api.Amplitude;
+
+import org.jitsi.meet.sdk.log.JitsiMeetLogger;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers the analytics events going to Amplitude and hands them over in
+ * batches, off the native modules thread:
+ * <ul>
+ * <li>events are dropped at random according to the sampling rate of their
+ * type;</li>
+ * <li>events of aggregated types are not sent one by one, they are counted and
+ * a numeric property of theirs is summarized (count, sum, min, max, mean and a
+ * histogram) into one event per flush;</li>
+ * <li>the other events are parsed and handed to Amplitude, which persists them
+ * on disk and uploads them, only when a batch is flushed.</li>
+ * </ul>
+ * A batch is flushed when {@link #MAX_BUFFERED_EVENTS} events are buffered,
+ * {@link #FLUSH_INTERVAL_S} seconds after the first buffered event, or by
+ * {@link #flush(boolean)} (e.g. when the app goes to the background). The
+ * events keep the time they were logged at, not the time of the flush.
+ *
+ * Until a batch is flushed its events are only in memory: if the process dies
+ * meanwhile (e.g. a crash), up to {@link #FLUSH_INTERVAL_S} seconds of events
+ * are lost. Going to the background flushes, so the process being killed
+ * there loses nothing.
+ *
+ * The calls which change what the next events are attributed to (user ID,
+ * user properties) go through {@link #flushAndRun(Runnable)}, so they are
+ * applied after the events logged before them.
+ */
+class AmplitudeEventPipeline {
+    private static final String TAG = AmplitudeEventPipeline.class.getSimpleName();
+
+    private static final int MAX_BUFFERED_EVENTS = 50;
+
+    private static final long FLUSH_INTERVAL_S = 10;
+
+    /**
+     * The upper bounds of the histogram buckets of aggregated events.
+     */
+    private static final double[] HISTOGRAM_BOUNDS
+        = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000 };
+
+    private final ScheduledExecutorService executor
+        = Executors.newSingleThreadScheduledExecutor();
+
+    private final Random random = new Random();
+
+    /**
+     * The sampling rates, by event type. Types not in here are not sampled.
+     */
+    private final Map<String, Double> samplingRates = new ConcurrentHashMap<>();
+
+    /**
+     * The property to summarize, by aggregated event type. An empty string
+     * means the events are only counted.
+     */
+    private final Map<String, String> aggregatedTypes = new ConcurrentHashMap<>();
+
+    // The fields below are only accessed on the executor.
+
+    private final List<PendingEvent> buffer = new ArrayList<>();
+
+    /**
+     * The aggregates of the current batch, by instance name and event type.
+     */
+    private final Map<String, Aggregate> aggregates = new LinkedHashMap<>();
+
+    private ScheduledFuture<?> scheduledFlush;
+
+    /**
+     * Sets the fraction of the events of a specific type which are sent.
+     *
+     * @param eventType - The event type.
+     * @param rate - From 0 (none) to 1 (all, the default).
+     */
+    void setSamplingRate(String eventType, double rate) {
+        if (rate >= 1) {
+            samplingRates.remove(eventType);
+        } else {
+            samplingRates.put(eventType, Math.max(0, rate));
+        }
+    }
+
+    /**
+     * Sets whether the events of a specific type are aggregated rather than
+     * sent one by one.
+     *
+     * @param eventType - The event type.
+     * @param valueProperty - The numeric property of the events to summarize,
+     * may be {@code null} to only count the events.
+     * @param aggregate - Whether to aggregate the events.
+     */
+    void setAggregated(String eventType, String valueProperty, boolean aggregate) {
+        if (aggregate) {
+            aggregatedTypes.put(eventType, valueProperty != null ? valueProperty : "");
+        } else {
+            aggregatedTypes.remove(eventType);
+        }
+    }
+
+    /**
+     * Queues an event. The properties are parsed on the pipeline's thread.
+     *
+     * @param instanceName - The name of the Amplitude instance.
+     * @param eventType - The event type.
+     * @param eventPropsString - JSON string with the event properties.
+     */
+    void logEvent(final String instanceName, final String eventType, final String eventPropsString) {
+        Double rate = samplingRates.get(eventType);
+
+        if (rate != null && random.nextDouble() >= rate) {
+            return;
+        }
+
+        final long timestamp = System.currentTimeMillis();
+
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                String valueProperty = aggregatedTypes.get(eventType);
+
+                if (valueProperty != null) {
+                    aggregate(instanceName, eventType, valueProperty, eventPropsString, timestamp);
+                } else {
+                    buffer.add(
+                        new PendingEvent(instanceName, eventType, eventPropsString, timestamp));
+                }
+
+                if (buffer.size() >= MAX_BUFFERED_EVENTS) {
+                    doFlush(false);
+                } else if (scheduledFlush == null && !executor.isShutdown()) {
+                    scheduledFlush = executor.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            scheduledFlush = null;
+                            doFlush(false);
+                        }
+                    }, FLUSH_INTERVAL_S, TimeUnit.SECONDS);
+                }
+            }
+        });
+    }
+
+    /**
+     * Hands the buffered events over to Amplitude.
+     *
+     * @param upload - Whether to also have Amplitude upload them right away,
+     * e.g. because the app is going to the background.
+     */
+    void flush(final boolean upload) {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                doFlush(upload);
+            }
+        });
+    }
+
+    /**
+     * Hands the buffered events over to Amplitude, then runs a call to the
+     * Amplitude SDK, on the pipeline's thread.
+     *
+     * @param runnable - The call, e.g. setting the user ID.
+     */
+    void flushAndRun(final Runnable runnable) {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                doFlush(false);
+                runnable.run();
+            }
+        });
+    }
+
+    /**
+     * Hands the buffered events over to Amplitude, has them uploaded and
+     * stops the pipeline's thread. The events logged afterwards are dropped.
+     */
+    void shutdown() {
+        flush(true);
+        executor.shutdown();
+    }
+
+    private void execute(Runnable runnable) {
+        try {
+            executor.execute(runnable);
+        } catch (RejectedExecutionException e) {
+            JitsiMeetLogger.w(TAG + " Pipeline shut down, dropping a call");
+        }
+    }
+
+    private void aggregate(
+            String instanceName,
+            String eventType,
+            String valueProperty,
+            String eventPropsString,
+            long timestamp) {
+        String key = instanceName + '\n' + eventType;
+        Aggregate aggregate = aggregates.get(key);
+
+        if (aggregate == null) {
+            aggregate = new Aggregate(instanceName, eventType, valueProperty, timestamp);
+            aggregates.put(key, aggregate);
+        }
+
+        aggregate.count++;
+
+        if (valueProperty.isEmpty()) {
+            return;
+        }
+
+        try {
+            double value = new JSONObject(eventPropsString).optDouble(valueProperty, Double.NaN);
+
+            if (!Double.isNaN(value)) {
+                aggregate.add(value);
+            }
+        } catch (JSONException e) {
+            JitsiMeetLogger.w(e, TAG + " Error parsing aggregated event");
+        }
+    }
+
+    private void doFlush(boolean upload) {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+
+        Set<String> instanceNames = new HashSet<>();
+
+        for (PendingEvent event : buffer) {
+            try {
+                Amplitude.getInstance(event.instanceName)
+                    .logEvent(
+                        event.eventType,
+                        new JSONObject(event.eventPropsString),
+                        null,
+                        event.timestamp,
+                        false);
+                instanceNames.add(event.instanceName);
+            } catch (JSONException e) {
+                JitsiMeetLogger.e(e, "Error logging event");
+            }
+        }
+        buffer.clear();
+
+        for (Aggregate aggregate : aggregates.values()) {
+            try {
+                Amplitude.getInstance(aggregate.instanceName)
+                    .logEvent(
+                        aggregate.eventType,
+                        aggregate.toJSON(),
+                        null,
+                        aggregate.timestamp,
+                        false);
+                instanceNames.add(aggregate.instanceName);
+            } catch (JSONException e) {
+                JitsiMeetLogger.e(e, "Error logging aggregated event");
+            }
+        }
+        aggregates.clear();
+
+        if (upload) {
+            for (String instanceName : instanceNames) {
+                Amplitude.getInstance(instanceName).uploadEvents();
+            }
+        }
+    }
+
+    private static class PendingEvent {
+        final String instanceName;
+        final String eventType;
+        final String eventPropsString;
+
+        /**
+         * The time the event was logged at, in milliseconds since the epoch.
+         */
+        final long timestamp;
+
+        PendingEvent(
+                String instanceName,
+                String eventType,
+                String eventPropsString,
+                long timestamp) {
+            this.instanceName = instanceName;
+            this.eventType = eventType;
+            this.eventPropsString = eventPropsString;
+            this.timestamp = timestamp;
+        }
+    }
+
+    /**
+     * The summary of the events of an aggregated type in a batch.
+     */
+    private static class Aggregate {
+        final String instanceName;
+        final String eventType;
+        final String valueProperty;
+
+        /**
+         * The time the first event of the batch was logged at, which the
+         * aggregated event is logged with.
+         */
+        final long timestamp;
+
+        int count;
+        int valueCount;
+        double sum;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        /**
+         * The counts per bucket, the last one being for the values above the
+         * last bound.
+         */
+        final int[] histogram = new int[HISTOGRAM_BOUNDS.length + 1];
+
+        Aggregate(String instanceName, String eventType, String valueProperty, long timestamp) {
+            this.instanceName = instanceName;
+            this.eventType = eventType;
+            this.valueProperty = valueProperty;
+            this.timestamp = timestamp;
+        }
+
+        void add(double value) {
+            int bucket = 0;
+
+            while (bucket < HISTOGRAM_BOUNDS.length && value > HISTOGRAM_BOUNDS[bucket]) {
+                bucket++;
+            }
+            histogram[bucket]++;
+
+            valueCount++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        JSONObject toJSON() throws JSONException {
+            JSONObject json = new JSONObject();
+
+            json.put("aggregated", true);
+            json.put("count", count);
+
+            if (valueCount > 0) {
+                JSONObject summary = new JSONObject();
+                JSONObject buckets = new JSONObject();
+
+                summary.put("count", valueCount);
+                summary.put("sum", sum);
+                summary.put("min", min);
+                summary.put("max", max);
+                summary.put("mean", sum / valueCount);
+
+                for (int i = 0; i < histogram.length; i++) {
+                    if (histogram[i] > 0) {
+                        buckets.put(
+                            i < HISTOGRAM_BOUNDS.length
+                                ? "le" + (long) HISTOGRAM_BOUNDS[i]
+                                : "inf",
+                            histogram[i]);
+                    }
+                }
+                summary.put("histogram", buckets);
+                json.put(valueProperty, summary);
+            }
+
+            return json;
+        }
+    }
+}
@@ -22,6 +22,7 @@ import android.content.SharedPreferences;
 import android.provider.Settings;
 import android.text.TextUtils;
 
+import com.facebook.react.bridge.LifecycleEventListener;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
@@ -30,8 +31,6 @@ import com.facebook.react.bridge.ReadableMap;
 import com.amplitude.api.Amplitude;
 import com.facebook.react.module.annotations.ReactModule;
 
-import org.jitsi.meet.sdk.log.JitsiMeetLogger;
-import org.json.JSONException;
 import org.json.JSONObject;
 
 /**
@@ -39,14 +38,23 @@ import org.json.JSONObject;
  */
 @ReactModule(name = AmplitudeModule.NAME)
 class AmplitudeModule
-        extends ReactContextBaseJavaModule {
+        extends ReactContextBaseJavaModule
+        implements LifecycleEventListener {
 
     public static final String NAME = "Amplitude";
     public static final String JITSI_PREFERENCES = "jitsi-preferences";
     public static final String AMPLITUDE_DEVICE_ID_KEY = "amplitudeDeviceId";
 
+    /**
+     * Buffers, samples and aggregates the events before handing them to the
+     * Amplitude SDK.
+     */
+    private final AmplitudeEventPipeline pipeline = new AmplitudeEventPipeline();
+
     public AmplitudeModule(ReactApplicationContext reactContext) {
         super(reactContext);
+
+        reactContext.addLifecycleEventListener(this);
     }
 
     /**
@@ -80,8 +88,14 @@ class AmplitudeModule
      * @param userId The new value for the user ID.
      */
     @ReactMethod
-    public void setUserId(String instanceName, String userId) {
-            Amplitude.getInstance(instanceName).setUserId(userId);
+    public void setUserId(final String instanceName, final String userId) {
+        // After the events logged so far, which are the previous user's.
+        pipeline.flushAndRun(new Runnable() {
+            @Override
+            public void run() {
+                Amplitude.getInstance(instanceName).setUserId(userId);
+            }
+        });
     }
 
     /**
@@ -91,10 +105,17 @@ class AmplitudeModule
      * @param userProps JSON string with user properties to be set.
      */
     @ReactMethod
-    public void setUserProperties(String instanceName, ReadableMap userProps) {
+    public void setUserProperties(final String instanceName, ReadableMap userProps) {
         if (userProps != null) {
-            Amplitude.getInstance(instanceName).setUserProperties(
-                    new JSONObject(userProps.toHashMap()));
+            final JSONObject properties = new JSONObject(userProps.toHashMap());
+
+            // After the events logged so far, which had the previous ones.
+            pipeline.flushAndRun(new Runnable() {
+                @Override
+                public void run() {
+                    Amplitude.getInstance(instanceName).setUserProperties(properties);
+                }
+            });
         }
     }
 
@@ -107,12 +128,52 @@ class AmplitudeModule
      */
     @ReactMethod
     public void logEvent(String instanceName, String eventType, String eventPropsString) {
-        try {
-            JSONObject eventProps = new JSONObject(eventPropsString);
-            Amplitude.getInstance(instanceName).logEvent(eventType, eventProps);
-        } catch (JSONException e) {
-            JitsiMeetLogger.e(e, "Error logging event");
-        }
+        pipeline.logEvent(instanceName, eventType, eventPropsString);
+    }
+
+    /**
+     * Sets the fraction of the analytics events of a specific type which are
+     * sent.
+     *
+     * @param eventType The event type.
+     * @param rate From 0 (none) to 1 (all, the default).
+     */
+    @ReactMethod
+    public void setSamplingRate(String eventType, double rate) {
+        pipeline.setSamplingRate(eventType, rate);
+    }
+
+    /**
+     * Sets whether the analytics events of a specific type are aggregated,
+     * i.e. sent as counters / histograms once per batch instead of one by one.
+     *
+     * @param eventType The event type.
+     * @param valueProperty The numeric event property to summarize, if any.
+     * @param aggregate Whether to aggregate the events.
+     */
+    @ReactMethod
+    public void setAggregated(String eventType, String valueProperty, boolean aggregate) {
+        pipeline.setAggregated(eventType, valueProperty, aggregate);
+    }
+
+    @Override
+    public void onHostResume() {
+    }
+
+    @Override
+    public void onHostPause() {
+        // The app may not come back, get the events out.
+        pipeline.flush(true);
+    }
+
+    @Override
+    public void onHostDestroy() {
+        pipeline.flush(true);
+    }
+
+    @Override
+    public void onCatalystInstanceDestroy() {
+        pipeline.shutdown();
     }
 
     @Override
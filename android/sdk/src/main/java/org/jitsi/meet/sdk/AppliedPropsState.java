@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2020. cabi LLC. All rights reserved.
+ */
+
+package org.jitsi.meet.sdk;
+
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+
+/**
+ * Tracks whether the props last applied to a {@link JitsiMeetView} still
+ * describe the current state of the {@code App}, i.e. whether applying the
+ * same props again can be skipped. They stop doing so when the XMPP
+ * connection they started ends, or when the conference they named does. A
+ * conference joined over the kept connection (see
+ * {@link JitsiMeetView#joinConference(String)}) ending leaves the connection,
+ * and the props, live.
+ *
+ * Updated on the UI thread by {@link JitsiMeetView#setProps} and on the native
+ * modules thread by the external API events, hence the volatile fields.
+ */
+final class AppliedPropsState {
+    /**
+     * The {@code XMPP_RESULT} types telling the XMPP connection ended.
+     */
+    static final String CONNECTION_DISCONNECTED = "xmpp_connection_disconnected";
+    static final String CONNECTION_FAILED = "xmpp_connection_failed";
+
+    private volatile boolean live;
+
+    /**
+     * Whether the applied props name a room, i.e. the conference ending means
+     * applying them again must join it again.
+     */
+    private volatile boolean hasRoom;
+
+    /**
+     * Called when props are applied with a full re-render.
+     *
+     * @param hasRoom - Whether the props name a room, as opposed to only a
+     * server to connect to.
+     */
+    void onApplied(boolean hasRoom) {
+        this.hasRoom = hasRoom;
+        live = true;
+    }
+
+    /**
+     * Called when the applied props are known not to describe the state of
+     * the {@code App} anymore, e.g. when leaving.
+     */
+    void invalidate() {
+        live = false;
+    }
+
+    boolean isLive() {
+        return live;
+    }
+
+    /**
+     * Applies the external API events which end the applied props. Called by
+     * {@link JitsiMeetView}.
+     */
+    void onExternalAPIEvent(String name, ReadableMap data) {
+        switch (name) {
+            case "CONFERENCE_TERMINATED":
+                // Without a room, the conference is one joined over the kept
+                // connection, whose end is told by XMPP_RESULT.
+                if (hasRoom) {
+                    live = false;
+                }
+                break;
+            case "XMPP_RESULT":
+                if (data != null
+                        && data.hasKey("type")
+                        && data.getType("type") == ReadableType.String) {
+                    String type = data.getString("type");
+
+                    if (CONNECTION_DISCONNECTED.equals(type) || CONNECTION_FAILED.equals(type)) {
+                        live = false;
+                    }
+                }
+                break;
+        }
+    }
+}
@@ -22,9 +22,6 @@ import android.os.Build;
 import android.telecom.CallAudioState;
 import androidx.annotation.RequiresApi;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import org.jitsi.meet.sdk.log.JitsiMeetLogger;
 
 
@@ -50,54 +47,16 @@ class AudioDeviceHandlerConnectionService implements
     private AudioModeModule module;
 
     /**
-     * Converts any of the "DEVICE_" constants into the corresponding
-     * {@link android.telecom.CallAudioState} "ROUTE_" number.
-     *
-     * @param audioDevice one of the "DEVICE_" constants.
-     * @return a route number {@link android.telecom.CallAudioState#ROUTE_EARPIECE} if
-     * no match is found.
-     */
-    private static int audioDeviceToRouteInt(String audioDevice) {
-        if (audioDevice == null) {
-            return CallAudioState.ROUTE_SPEAKER;
-        }
-        switch (audioDevice) {
-            case AudioModeModule.DEVICE_BLUETOOTH:
-                return CallAudioState.ROUTE_BLUETOOTH;
-            case AudioModeModule.DEVICE_EARPIECE:
-                return CallAudioState.ROUTE_EARPIECE;
-            case AudioModeModule.DEVICE_HEADPHONES:
-                return CallAudioState.ROUTE_WIRED_HEADSET;
-            case AudioModeModule.DEVICE_SPEAKER:
-                return CallAudioState.ROUTE_SPEAKER;
-            default:
-                JitsiMeetLogger.e(TAG + " Unsupported device name: " + audioDevice);
-                return CallAudioState.ROUTE_SPEAKER;
-        }
-    }
-
-    /**
-     * Populates given route mask into the "DEVICE_" list.
+     * Converts an audio device into the corresponding
+     * {@link android.telecom.CallAudioState} "ROUTE_" number. The device bits
+     * of {@link AudioModeModule} are the route numbers.
      *
-     * @param supportedRouteMask an integer coming from
-     * {@link android.telecom.CallAudioState#getSupportedRouteMask()}.
-     * @return a list of device names.
+     * @param audioDevice one of the device bits of {@link AudioModeModule}.
+     * @return a route number, {@link android.telecom.CallAudioState#ROUTE_SPEAKER}
+     * if there is no device.
      */
-    private static Set<String> routesToDeviceNames(int supportedRouteMask) {
-        Set<String> devices = new HashSet<>();
-        if ((supportedRouteMask & CallAudioState.ROUTE_EARPIECE) == CallAudioState.ROUTE_EARPIECE) {
-            devices.add(AudioModeModule.DEVICE_EARPIECE);
-        }
-        if ((supportedRouteMask & CallAudioState.ROUTE_BLUETOOTH) == CallAudioState.ROUTE_BLUETOOTH) {
-            devices.add(AudioModeModule.DEVICE_BLUETOOTH);
-        }
-        if ((supportedRouteMask & CallAudioState.ROUTE_SPEAKER) == CallAudioState.ROUTE_SPEAKER) {
-            devices.add(AudioModeModule.DEVICE_SPEAKER);
-        }
-        if ((supportedRouteMask & CallAudioState.ROUTE_WIRED_HEADSET) == CallAudioState.ROUTE_WIRED_HEADSET) {
-            devices.add(AudioModeModule.DEVICE_HEADPHONES);
-        }
-        return devices;
+    private static int audioDeviceToRouteInt(int audioDevice) {
+        return audioDevice != 0 ? audioDevice : CallAudioState.ROUTE_SPEAKER;
     }
 
     /**
@@ -123,9 +82,9 @@ class AudioDeviceHandlerConnectionService implements
                 boolean audioDevicesChanged = supportedRouteMask != newSupportedRoutes;
                 if (audioDevicesChanged) {
                     supportedRouteMask = newSupportedRoutes;
-                    Set<String> devices = routesToDeviceNames(supportedRouteMask);
-                    module.replaceDevices(devices);
-                    JitsiMeetLogger.i(TAG + " Available audio devices: " + devices.toString());
+                    module.replaceDevices(supportedRouteMask);
+                    JitsiMeetLogger.i(TAG + " Available audio devices: "
+                        + AudioModeModule.devicesToString(supportedRouteMask));
                 }
 
                 if (audioRouteChanged || audioDevicesChanged) {
@@ -160,7 +119,7 @@ class AudioDeviceHandlerConnectionService implements
         }
     }
 
-    public void setAudioRoute(String audioDevice) {
+    public void setAudioRoute(int audioDevice) {
         int newAudioRoute = audioDeviceToRouteInt(audioDevice);
 
         RNConnectionService.setAudioRoute(newAudioRoute);
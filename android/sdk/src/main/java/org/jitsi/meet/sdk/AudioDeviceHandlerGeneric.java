@@ -19,8 +19,7 @@ package org.jitsi.meet.sdk;
 import android.media.AudioDeviceInfo;
 import android.media.AudioManager;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.jitsi.meet.sdk.log.JitsiMeetLogger;
 
@@ -60,37 +59,59 @@ class AudioDeviceHandlerGeneric implements
     private AudioManager audioManager;
 
     /**
-     * {@link Runnable} for running audio device detection the main thread.
-     * This is only used on Android >= M.
+     * Whether a device scan is scheduled and not started yet. Device changes
+     * happening meanwhile are covered by that scan.
+     */
+    private final AtomicBoolean scanScheduled = new AtomicBoolean();
+
+    /**
+     * The devices found by the last scan, -1 if there was none.
+     * Only accessed on the audio thread.
+     */
+    private int lastScannedDevices = -1;
+
+    /**
+     * {@link Runnable} for running audio device detection on the audio
+     * thread. This is only used on Android >= M.
      */
     private final Runnable onAudioDeviceChangeRunner = new Runnable() {
         @Override
         public void run() {
-            Set<String> devices = new HashSet<>();
+            // Changes from now on need another scan.
+            scanScheduled.set(false);
+
+            int devices = 0;
             AudioDeviceInfo[] deviceInfos = audioManager.getDevices(AudioManager.GET_DEVICES_ALL);
 
             for (AudioDeviceInfo info: deviceInfos) {
                 switch (info.getType()) {
                     case AudioDeviceInfo.TYPE_BLUETOOTH_SCO:
-                        devices.add(AudioModeModule.DEVICE_BLUETOOTH);
+                        devices |= AudioModeModule.BLUETOOTH;
                         break;
                     case AudioDeviceInfo.TYPE_BUILTIN_EARPIECE:
-                        devices.add(AudioModeModule.DEVICE_EARPIECE);
+                        devices |= AudioModeModule.EARPIECE;
                         break;
                     case AudioDeviceInfo.TYPE_BUILTIN_SPEAKER:
-                        devices.add(AudioModeModule.DEVICE_SPEAKER);
+                        devices |= AudioModeModule.SPEAKER;
                         break;
                     case AudioDeviceInfo.TYPE_WIRED_HEADPHONES:
                     case AudioDeviceInfo.TYPE_WIRED_HEADSET:
                     case TYPE_USB_HEADSET:
-                        devices.add(AudioModeModule.DEVICE_HEADPHONES);
+                        devices |= AudioModeModule.HEADPHONES;
                         break;
                 }
             }
 
+            if (devices == lastScannedDevices) {
+                JitsiMeetLogger.d(TAG + " Audio devices unchanged");
+                return;
+            }
+            lastScannedDevices = devices;
+
             module.replaceDevices(devices);
 
-            JitsiMeetLogger.i(TAG + " Available audio devices: " + devices.toString());
+            JitsiMeetLogger.i(TAG + " Available audio devices: "
+                + AudioModeModule.devicesToString(devices));
 
             module.updateAudioRoute();
         }
@@ -119,10 +140,13 @@ class AudioDeviceHandlerGeneric implements
 
     /**
      * Helper method to trigger an audio route update when devices change. It
-     * makes sure the operation is performed on the audio thread.
+     * makes sure the operation is performed on the audio thread, once for all
+     * the changes happening within the device change window.
      */
     private void onAudioDeviceChange() {
-        module.runInAudioThread(onAudioDeviceChangeRunner);
+        if (scanScheduled.compareAndSet(false, true)) {
+            module.runInAudioThread(onAudioDeviceChangeRunner, module.getDeviceChangeWindow());
+        }
     }
 
     /**
@@ -183,8 +207,10 @@ class AudioDeviceHandlerGeneric implements
         // Setup runtime device change detection.
         audioManager.registerAudioDeviceCallback(audioDeviceCallback, null);
 
-        // Do an initial detection.
-        onAudioDeviceChange();
+        // Do an initial detection, right away.
+        lastScannedDevices = -1;
+        scanScheduled.set(true);
+        module.runInAudioThread(onAudioDeviceChangeRunner);
     }
 
     @Override
@@ -193,12 +219,12 @@ class AudioDeviceHandlerGeneric implements
     }
 
     @Override
-    public void setAudioRoute(String device) {
+    public void setAudioRoute(int device) {
         // Turn speaker on / off
-        audioManager.setSpeakerphoneOn(device.equals(AudioModeModule.DEVICE_SPEAKER));
+        audioManager.setSpeakerphoneOn(device == AudioModeModule.SPEAKER);
 
         // Turn bluetooth on / off
-        setBluetoothAudioRoute(device.equals(AudioModeModule.DEVICE_BLUETOOTH));
+        setBluetoothAudioRoute(device == AudioModeModule.BLUETOOTH);
     }
 
     @Override
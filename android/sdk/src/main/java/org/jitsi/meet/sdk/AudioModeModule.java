@@ -32,11 +32,12 @@ import com.facebook.react.module.annotations.ReactModule;
 import org.jitsi.meet.sdk.log.JitsiMeetLogger;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Module implementing a simple API to select the appropriate audio device for a
@@ -95,18 +96,32 @@ public class AudioModeModule extends ReactContextBaseJavaModule {
     private AudioDeviceHandlerInterface audioDeviceHandler;
 
     /**
-     * {@link ExecutorService} for running all audio operations on a dedicated
-     * thread.
+     * {@link ScheduledExecutorService} for running all audio operations on a
+     * dedicated thread.
      */
-    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final ScheduledExecutorService executor
+        = Executors.newSingleThreadScheduledExecutor();
 
     /**
-     * Audio mode currently in use.
+     * The default time audio device changes are collected for before the
+     * devices are scanned, in milliseconds.
      */
-    private int mode = -1;
+    static final int DEFAULT_DEVICE_CHANGE_WINDOW_MS = 250;
 
     /**
-     * Audio device types.
+     * The time audio device changes are collected for before the devices are
+     * scanned, in milliseconds.
+     */
+    private volatile int deviceChangeWindowMs = DEFAULT_DEVICE_CHANGE_WINDOW_MS;
+
+    /**
+     * The devices last notified to JS, which the deltas sent to JS are
+     * relative to. Only replaced on the audio thread.
+     */
+    private volatile NotifiedDevices notifiedDevices = NotifiedDevices.INITIAL;
+
+    /**
+     * Audio device types, as exposed to JS.
      */
     static final String DEVICE_BLUETOOTH  = "BLUETOOTH";
     static final String DEVICE_EARPIECE   = "EARPIECE";
@@ -114,25 +129,134 @@ public class AudioModeModule extends ReactContextBaseJavaModule {
     static final String DEVICE_SPEAKER    = "SPEAKER";
 
     /**
-     * Device change event.
+     * Audio device types, as bits of a device mask. The values match the
+     * {@code ROUTE_} constants of {@link android.telecom.CallAudioState}, so
+     * its route masks are device masks.
      */
-    private static final String DEVICE_CHANGE_EVENT = "org.jitsi.meet:features/audio-mode#devices-update";
+    static final int EARPIECE   = 0x01;
+    static final int BLUETOOTH  = 0x02;
+    static final int HEADPHONES = 0x04;
+    static final int SPEAKER    = 0x08;
+
+    /**
+     * All the audio device bits.
+     */
+    static final int ALL_DEVICES = EARPIECE | BLUETOOTH | HEADPHONES | SPEAKER;
+
+    /**
+     * The device picked by default, by device mask: Bluetooth, then wired
+     * headset, then the speaker.
+     */
+    private static final int[] DEFAULT_ROUTES = new int[ALL_DEVICES + 1];
+
+    static {
+        for (int mask = 0; mask <= ALL_DEVICES; mask++) {
+            if ((mask & BLUETOOTH) != 0) {
+                DEFAULT_ROUTES[mask] = BLUETOOTH;
+            } else if ((mask & HEADPHONES) != 0) {
+                DEFAULT_ROUTES[mask] = HEADPHONES;
+            } else {
+                DEFAULT_ROUTES[mask] = SPEAKER;
+            }
+        }
+    }
+
+    /**
+     * Selects the device to route the audio to.
+     *
+     * @param availableDevices - The mask of the available devices.
+     * @param userSelectedDevice - The device selected by the user, if any.
+     * @return The device to use.
+     */
+    static int selectRoute(int availableDevices, int userSelectedDevice) {
+        if ((availableDevices & userSelectedDevice) != 0) {
+            return userSelectedDevice;
+        }
+
+        return DEFAULT_ROUTES[availableDevices & ALL_DEVICES];
+    }
+
+    /**
+     * Gets the name of an audio device.
+     *
+     * @param device - One of the device bits.
+     * @return One of the {@code DEVICE_} names, or {@code null}.
+     */
+    static String deviceName(int device) {
+        switch (device) {
+            case BLUETOOTH:
+                return DEVICE_BLUETOOTH;
+            case EARPIECE:
+                return DEVICE_EARPIECE;
+            case HEADPHONES:
+                return DEVICE_HEADPHONES;
+            case SPEAKER:
+                return DEVICE_SPEAKER;
+            default:
+                return null;
+        }
+    }
 
     /**
-     * List of currently available audio devices.
+     * Gets the bit of an audio device.
+     *
+     * @param device - One of the {@code DEVICE_} names.
+     * @return One of the device bits, or 0 if the name is unknown.
      */
-    private Set<String> availableDevices = new HashSet<>();
+    static int deviceBit(String device) {
+        if (device == null) {
+            return 0;
+        }
+        switch (device) {
+            case DEVICE_BLUETOOTH:
+                return BLUETOOTH;
+            case DEVICE_EARPIECE:
+                return EARPIECE;
+            case DEVICE_HEADPHONES:
+                return HEADPHONES;
+            case DEVICE_SPEAKER:
+                return SPEAKER;
+            default:
+                return 0;
+        }
+    }
 
     /**
-     * Currently selected device.
+     * Formats a device mask for logging.
      */
-    private String selectedDevice;
+    static String devicesToString(int devices) {
+        StringBuilder sb = new StringBuilder("[");
+
+        for (int device = 1; device <= ALL_DEVICES; device <<= 1) {
+            if ((devices & device) != 0) {
+                if (sb.length() > 1) {
+                    sb.append(", ");
+                }
+                sb.append(deviceName(device));
+            }
+        }
+
+        return sb.append(']').toString();
+    }
 
     /**
-     * User selected device. When null the default is used depending on the
-     * mode.
+     * Device change event, carrying the whole device list. Only emitted on
+     * iOS, exported for the JS code shared with it.
      */
-    private String userSelectedDevice;
+    private static final String DEVICE_CHANGE_EVENT = "org.jitsi.meet:features/audio-mode#devices-update";
+
+    /**
+     * Device delta event, carrying the changes since the event with the
+     * previous version.
+     */
+    private static final String DEVICE_DELTA_EVENT = "org.jitsi.meet:features/audio-mode#devices-delta";
+
+    /**
+     * The current audio routing state. Only replaced on the audio thread, but
+     * read from any thread.
+     */
+    private final AtomicReference<AudioState> state
+        = new AtomicReference<>(AudioState.INITIAL);
 
     /**
      * Initializes a new module instance. There shall be a single instance of
@@ -158,6 +282,7 @@ public class AudioModeModule extends ReactContextBaseJavaModule {
         Map<String, Object> constants = new HashMap<>();
 
         constants.put("DEVICE_CHANGE_EVENT", DEVICE_CHANGE_EVENT);
+        constants.put("DEVICE_DELTA_EVENT", DEVICE_DELTA_EVENT);
         constants.put("AUDIO_CALL", AUDIO_CALL);
         constants.put("DEFAULT", DEFAULT);
         constants.put("VIDEO_CALL", VIDEO_CALL);
@@ -166,28 +291,135 @@ public class AudioModeModule extends ReactContextBaseJavaModule {
     }
 
     /**
-     * Notifies JS land that the devices list has changed.
+     * Notifies JS land that the devices list has changed. Only the changes
+     * since the last notification are sent: the {@code added} and
+     * {@code removed} device types, the {@code selected} device type (or
+     * {@code null}) if it changed or was added and the {@code version} of the list, which
+     * is incremented by 1 on every notification. JS gets the whole list with
+     * {@link #getDevices(Promise)}.
      */
     private void notifyDevicesChanged() {
-        runInAudioThread(new Runnable() {
-            @Override
-            public void run() {
-                WritableArray data = Arguments.createArray();
-                final boolean hasHeadphones = availableDevices.contains(DEVICE_HEADPHONES);
-                for (String device : availableDevices) {
-                    if (hasHeadphones && device.equals(DEVICE_EARPIECE)) {
-                        // Skip earpiece when headphones are plugged in.
-                        continue;
-                    }
-                    WritableMap deviceInfo = Arguments.createMap();
-                    deviceInfo.putString("type", device);
-                    deviceInfo.putBoolean("selected", device.equals(selectedDevice));
-                    data.pushMap(deviceInfo);
-                }
-                ReactInstanceManagerHolder.emitEvent(DEVICE_CHANGE_EVENT, data);
-                JitsiMeetLogger.i(TAG + " Updating audio device list");
+        NotifiedDevices previous = notifiedDevices;
+        int previousDevices = previous.visibleDevices;
+        int previousSelected = previous.selectedDevice;
+        AudioState state = this.state.get();
+        int devices = visibleDevices(state);
+        int selected = state.selectedDevice;
+
+        if (previousDevices == devices && previousSelected == selected) {
+            return;
+        }
+
+        NotifiedDevices current = new NotifiedDevices(previous.version + 1, devices, selected);
+        WritableMap data = Arguments.createMap();
+
+        notifiedDevices = current;
+
+        data.putInt("version", current.version);
+        data.putArray("added", deviceNamesToJS(devices & ~previousDevices));
+        data.putArray("removed", deviceNamesToJS(previousDevices & ~devices));
+        // Also when a hidden selected device (e.g. the earpiece while
+        // headphones were plugged in) shows up again.
+        if (previousSelected != selected || (selected & devices & ~previousDevices) != 0) {
+            data.putString("selected", deviceName(selected));
+        }
+
+        ReactInstanceManagerHolder.emitEvent(DEVICE_DELTA_EVENT, data);
+        JitsiMeetLogger.i(TAG + " Updating audio device list");
+    }
+
+    /**
+     * Gets the audio devices as last notified to JS.
+     *
+     * @param promise - Resolved with the {@code version} of the list and the
+     * {@code devices}, each with its {@code type} and whether it's
+     * {@code selected}.
+     */
+    @ReactMethod
+    public void getDevices(Promise promise) {
+        NotifiedDevices notified = notifiedDevices;
+        WritableArray devices = Arguments.createArray();
+        WritableMap result = Arguments.createMap();
+
+        for (int device = 1; device <= ALL_DEVICES; device <<= 1) {
+            if ((notified.visibleDevices & device) != 0) {
+                WritableMap deviceInfo = Arguments.createMap();
+                deviceInfo.putString("type", deviceName(device));
+                deviceInfo.putBoolean("selected", device == notified.selectedDevice);
+                devices.pushMap(deviceInfo);
             }
-        });
+        }
+
+        result.putInt("version", notified.version);
+        result.putArray("devices", devices);
+        promise.resolve(result);
+    }
+
+    /**
+     * Builds the JS array of the names of the devices of a specific mask.
+     */
+    private static WritableArray deviceNamesToJS(int devices) {
+        WritableArray names = Arguments.createArray();
+
+        for (int device = 1; device <= ALL_DEVICES; device <<= 1) {
+            if ((devices & device) != 0) {
+                names.pushString(deviceName(device));
+            }
+        }
+
+        return names;
+    }
+
+    /**
+     * Gets the mask of the devices of a specific state which are shown to JS.
+     */
+    private static int visibleDevices(AudioState state) {
+        int devices = state.availableDevices;
+
+        if ((devices & HEADPHONES) != 0) {
+            // Skip earpiece when headphones are plugged in.
+            devices &= ~EARPIECE;
+        }
+
+        return devices;
+    }
+
+    /**
+     * Builds the JS representation of the devices of a specific state.
+     */
+    private static WritableArray devicesToJS(AudioState state) {
+        WritableArray data = Arguments.createArray();
+        int devices = visibleDevices(state);
+
+        for (int device = 1; device <= ALL_DEVICES; device <<= 1) {
+            if ((devices & device) != 0) {
+                WritableMap deviceInfo = Arguments.createMap();
+                deviceInfo.putString("type", deviceName(device));
+                deviceInfo.putBoolean("selected", device == state.selectedDevice);
+                data.pushMap(deviceInfo);
+            }
+        }
+
+        return data;
+    }
+
+    /**
+     * Gets the current audio route and devices. Answered right away from the
+     * latest state rather than after the pending audio operations.
+     *
+     * @param promise - Resolved with the {@code mode}, the {@code selected}
+     * device (or {@code null}) and the {@code devices} (as in the device
+     * change event).
+     */
+    @ReactMethod
+    public void getAudioRoute(Promise promise) {
+        AudioState state = this.state.get();
+        WritableMap result = Arguments.createMap();
+
+        result.putInt("mode", state.mode);
+        result.putString("selected", deviceName(state.selectedDevice));
+        result.putArray("devices", devicesToJS(state));
+        promise.resolve(result);
     }
 
     /**
@@ -237,6 +469,38 @@ public class AudioModeModule extends ReactContextBaseJavaModule {
         executor.execute(runnable);
     }
 
+    /**
+     * Helper function to run operations on a dedicated thread after a delay.
+     *
+     * @param runnable - The operation to run.
+     * @param delayMs - The delay, in milliseconds.
+     */
+    ScheduledFuture<?> runInAudioThread(Runnable runnable, long delayMs) {
+        return executor.schedule(runnable, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets the time audio device changes are collected for before the devices
+     * are scanned.
+     *
+     * @return The time, in milliseconds.
+     */
+    int getDeviceChangeWindow() {
+        return deviceChangeWindowMs;
+    }
+
+    /**
+     * Sets the time audio device changes are collected for before the devices
+     * are scanned, so that bursts of changes (e.g. when a Bluetooth headset
+     * connects) result in a single scan and route update.
+     *
+     * @param windowMs - The time, in milliseconds. 0 scans on every change.
+     */
+    @ReactMethod
+    public void setDeviceChangeWindow(int windowMs) {
+        deviceChangeWindowMs = Math.max(0, windowMs);
+    }
+
     /**
      * Sets the user selected audio device as the active audio device.
      *
@@ -244,19 +508,23 @@ public class AudioModeModule extends ReactContextBaseJavaModule {
      */
     @ReactMethod
     public void setAudioDevice(final String device) {
+        final int deviceBit = deviceBit(device);
+
         runInAudioThread(new Runnable() {
             @Override
             public void run() {
-                if (!availableDevices.contains(device)) {
+                AudioState current = state.get();
+
+                if ((current.availableDevices & deviceBit) == 0) {
                     JitsiMeetLogger.w(TAG + " Audio device not available: " + device);
-                    userSelectedDevice = null;
+                    state.set(current.withUserSelectedDevice(0));
                     return;
                 }
 
-                if (mode != -1) {
+                if (current.mode != -1) {
                     JitsiMeetLogger.i(TAG + " User selected device set to: " + device);
-                    userSelectedDevice = device;
-                    updateAudioRoute(mode);
+                    state.set(current.withUserSelectedDevice(deviceBit));
+                    updateAudioRoute(current.mode);
                 }
             }
         });
@@ -288,7 +556,7 @@ public class AudioModeModule extends ReactContextBaseJavaModule {
                     JitsiMeetLogger.e(e, TAG + " Failed to update audio route for mode: " + mode);
                 }
                 if (success) {
-                    AudioModeModule.this.mode = mode;
+                    state.set(state.get().withMode(mode));
                     promise.resolve(null);
                 } else {
                     promise.reject("setMode", "Failed to set audio mode to " + mode);
@@ -328,40 +596,28 @@ public class AudioModeModule extends ReactContextBaseJavaModule {
             return false;
         }
 
+        AudioState current = state.get();
+
         if (mode == DEFAULT) {
-            selectedDevice = null;
-            userSelectedDevice = null;
+            state.set(current.withSelectedDevice(0).withUserSelectedDevice(0));
 
             notifyDevicesChanged();
             return true;
         }
 
-        boolean bluetoothAvailable = availableDevices.contains(DEVICE_BLUETOOTH);
-        boolean headsetAvailable = availableDevices.contains(DEVICE_HEADPHONES);
-
-        // Pick the desired device based on what's available and the mode.
-        String audioDevice;
-        if (bluetoothAvailable) {
-            audioDevice = DEVICE_BLUETOOTH;
-        } else if (headsetAvailable) {
-            audioDevice = DEVICE_HEADPHONES;
-        } else {
-            audioDevice = DEVICE_SPEAKER;
-        }
-
-        // Consider the user's selection
-        if (userSelectedDevice != null && availableDevices.contains(userSelectedDevice)) {
-            audioDevice = userSelectedDevice;
-        }
+        // Pick the desired device based on what's available and the user's
+        // selection.
+        int audioDevice
+            = selectRoute(current.availableDevices, current.userSelectedDevice);
 
         // If the previously selected device and the current default one
         // match, do nothing.
-        if (selectedDevice != null && selectedDevice.equals(audioDevice)) {
+        if (current.selectedDevice == audioDevice) {
             return true;
         }
 
-        selectedDevice = audioDevice;
-        JitsiMeetLogger.i(TAG + " Selected audio device: " + audioDevice);
+        state.set(current.withSelectedDevice(audioDevice));
+        JitsiMeetLogger.i(TAG + " Selected audio device: " + deviceName(audioDevice));
 
         audioDeviceHandler.setAudioRoute(audioDevice);
 
@@ -372,56 +628,121 @@ public class AudioModeModule extends ReactContextBaseJavaModule {
     /**
      * Gets the currently selected audio device.
      *
-     * @return The selected audio device.
+     * @return The selected audio device bit, or 0 if none.
      */
-    String getSelectedDevice() {
-        return selectedDevice;
+    int getSelectedDevice() {
+        return state.get().selectedDevice;
     }
 
     /**
-     * Resets the current device selection.
+     * Resets the current device selection. Must be called on the audio thread.
      */
     void resetSelectedDevice() {
-        selectedDevice = null;
-        userSelectedDevice = null;
+        state.set(state.get().withSelectedDevice(0).withUserSelectedDevice(0));
     }
 
     /**
-     * Adds a new device to the list of available devices.
+     * Replaces the available devices. Must be called on the audio thread.
      *
-     * @param device The new device.
+     * @param devices The mask of the available devices.
      */
-    void addDevice(String device) {
-        availableDevices.add(device);
-        resetSelectedDevice();
+    void replaceDevices(int devices) {
+        state.set(
+            state.get()
+                .withAvailableDevices(devices & ALL_DEVICES)
+                .withSelectedDevice(0)
+                .withUserSelectedDevice(0));
     }
 
     /**
-     * Removes a device from the list of available devices.
-     *
-     * @param device The old device to the removed.
+     * Re-sets the current audio route. Needed when devices changes have happened.
      */
-    void removeDevice(String device) {
-        availableDevices.remove(device);
-        resetSelectedDevice();
+    void updateAudioRoute() {
+        int mode = state.get().mode;
+
+        if (mode != -1) {
+            updateAudioRoute(mode);
+        }
     }
 
     /**
-     * Replaces the current list of available devices with a new one.
-     *
-     * @param devices The new devices list.
+     * The devices notified to JS.
      */
-    void replaceDevices(Set<String> devices) {
-        availableDevices = devices;
-        resetSelectedDevice();
+    private static final class NotifiedDevices {
+        static final NotifiedDevices INITIAL = new NotifiedDevices(0, 0, 0);
+
+        final int version;
+
+        /**
+         * The mask of the devices shown to JS.
+         */
+        final int visibleDevices;
+
+        final int selectedDevice;
+
+        NotifiedDevices(int version, int visibleDevices, int selectedDevice) {
+            this.version = version;
+            this.visibleDevices = visibleDevices;
+            this.selectedDevice = selectedDevice;
+        }
     }
 
     /**
-     * Re-sets the current audio route. Needed when devices changes have happened.
+     * Immutable snapshot of the audio routing state.
      */
-    void updateAudioRoute() {
-        if (mode != -1) {
-            updateAudioRoute(mode);
+    private static final class AudioState {
+        static final AudioState INITIAL = new AudioState(-1, 0, 0, 0);
+
+        /**
+         * Audio mode currently in use, -1 if none yet.
+         */
+        final int mode;
+
+        /**
+         * The mask of the available devices.
+         */
+        final int availableDevices;
+
+        /**
+         * The currently selected device, 0 if none.
+         */
+        final int selectedDevice;
+
+        /**
+         * The device selected by the user, 0 if none, in which case the
+         * default is used depending on the mode.
+         */
+        final int userSelectedDevice;
+
+        AudioState(int mode, int availableDevices, int selectedDevice, int userSelectedDevice) {
+            this.mode = mode;
+            this.availableDevices = availableDevices;
+            this.selectedDevice = selectedDevice;
+            this.userSelectedDevice = userSelectedDevice;
+        }
+
+        AudioState withMode(int mode) {
+            return mode == this.mode
+                ? this
+                : new AudioState(mode, availableDevices, selectedDevice, userSelectedDevice);
+        }
+
+        AudioState withAvailableDevices(int availableDevices) {
+            return availableDevices == this.availableDevices
+                ? this
+                : new AudioState(mode, availableDevices, selectedDevice, userSelectedDevice);
+        }
+
+        AudioState withSelectedDevice(int selectedDevice) {
+            return selectedDevice == this.selectedDevice
+                ? this
+                : new AudioState(mode, availableDevices, selectedDevice, userSelectedDevice);
+        }
+
+        AudioState withUserSelectedDevice(int userSelectedDevice) {
+            return userSelectedDevice == this.userSelectedDevice
+                ? this
+                : new AudioState(mode, availableDevices, selectedDevice, userSelectedDevice);
         }
     }
 
@@ -443,9 +764,10 @@ public class AudioModeModule extends ReactContextBaseJavaModule {
         /**
          * Set the appropriate route for the given audio device.
          *
-         * @param device Audio device for which the route must be set.
+         * @param device Audio device (one of the device bits) for which the
+         * route must be set.
          */
-        void setAudioRoute(String device);
+        void setAudioRoute(int device);
 
         /**
          * Set the given audio mode.
@@ -28,13 +28,13 @@ import com.facebook.react.ReactRootView;
 import com.facebook.react.bridge.ReadableMap;
 import com.rnimmersive.RNImmersiveModule;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Base class for all views which are backed by a React Native view.
@@ -49,12 +49,13 @@ public abstract class BaseReactView<ListenerT>
     protected static int BACKGROUND_COLOR = 0xFF111111;
 
     /**
-     * The collection of all existing {@code BaseReactView}s. Used to find the
-     * {@code BaseReactView} when delivering events coming from
-     * {@link ExternalAPIModule}.
+     * All existing {@code BaseReactView}s by their external API scope. Used to
+     * find the {@code BaseReactView} when delivering events coming from
+     * {@link ExternalAPIModule}, which happens on the JS thread, so lookups
+     * must not block on views being created or disposed on the UI thread.
      */
-    static final Set<BaseReactView> views
-        = Collections.newSetFromMap(new WeakHashMap<BaseReactView, Boolean>());
+    private static final ConcurrentHashMap<String, WeakReference<BaseReactView>> views
+        = new ConcurrentHashMap<>();
 
     /**
      * Finds a {@code BaseReactView} which matches a specific external API
@@ -67,15 +68,24 @@ public abstract class BaseReactView<ListenerT>
      */
     public static BaseReactView findViewByExternalAPIScope(
             String externalAPIScope) {
-        synchronized (views) {
-            for (BaseReactView view : views) {
-                if (view.externalAPIScope.equals(externalAPIScope)) {
-                    return view;
-                }
-            }
+        if (externalAPIScope == null) {
+            return null;
+        }
+
+        WeakReference<BaseReactView> ref = views.get(externalAPIScope);
+
+        if (ref == null) {
+            return null;
         }
 
-        return null;
+        BaseReactView view = ref.get();
+
+        if (view == null) {
+            // The view was garbage collected without being disposed.
+            views.remove(externalAPIScope, ref);
+        }
+
+        return view;
     }
 
     /**
@@ -84,7 +94,20 @@ public abstract class BaseReactView<ListenerT>
      * @return An {@link ArrayList} containing all views currently held by React.
      */
     static ArrayList<BaseReactView> getViews() {
-        return new ArrayList<>(views);
+        ArrayList<BaseReactView> result = new ArrayList<>(views.size());
+
+        for (Iterator<WeakReference<BaseReactView>> i = views.values().iterator();
+                i.hasNext();) {
+            BaseReactView view = i.next().get();
+
+            if (view == null) {
+                i.remove();
+            } else {
+                result.add(view);
+            }
+        }
+
+        return result;
     }
 
     /**
@@ -93,7 +116,7 @@ public abstract class BaseReactView<ListenerT>
      * inspired by postis which we use on Web for the similar purposes of the
      * iframe-based external API.
      */
-    protected static final String externalAPIScope = UUID.randomUUID().toString();
+    protected final String externalAPIScope = UUID.randomUUID().toString();
 
     /**
      * The listener (e.g. {@link JitsiMeetViewListener}) instance for reporting
@@ -101,6 +124,11 @@ public abstract class BaseReactView<ListenerT>
      */
     private ListenerT listener;
 
+    /**
+     * The thread the methods of {@link #listener} are called on.
+     */
+    private volatile ListenerDelivery listenerDelivery = ListenerDelivery.UI_THREAD;
+
     /**
      * React Native root view.
      */
@@ -114,9 +142,15 @@ public abstract class BaseReactView<ListenerT>
         ReactInstanceManagerHolder.initReactInstanceManager((Activity)context);
 
         // Hook this BaseReactView into ExternalAPI.
-        synchronized (views) {
-            views.add(this);
-        }
+        register();
+    }
+
+    /**
+     * Makes this {@code BaseReactView} reachable through
+     * {@link #findViewByExternalAPIScope(String)}.
+     */
+    private void register() {
+        views.put(externalAPIScope, new WeakReference<BaseReactView>(this));
     }
 
     /**
@@ -134,6 +168,11 @@ public abstract class BaseReactView<ListenerT>
         props.putString("externalAPIScope", externalAPIScope);
 
         if (reactRootView == null) {
+            // The view may be reused after having been disposed.
+            if (findViewByExternalAPIScope(externalAPIScope) != this) {
+                register();
+            }
+
             reactRootView = new ReactRootView(getContext());
             reactRootView.startReactApplication(
                 ReactInstanceManagerHolder.getReactInstanceManager(),
@@ -141,6 +180,7 @@ public abstract class BaseReactView<ListenerT>
                 props);
             reactRootView.setBackgroundColor(BACKGROUND_COLOR);
             addView(reactRootView);
+            ReactInstanceManagerHolder.logStartupTiming("React root view started");
         } else {
             reactRootView.setAppProperties(props);
         }
@@ -154,6 +194,9 @@ public abstract class BaseReactView<ListenerT>
      * typically in the {@code onDestroy} method.
      */
     public void dispose() {
+        // Unhook this BaseReactView from ExternalAPI.
+        views.remove(externalAPIScope);
+
         if (reactRootView != null) {
             removeView(reactRootView);
             reactRootView.unmountReactApplication();
@@ -187,7 +230,18 @@ public abstract class BaseReactView<ListenerT>
 
         if (listener != null) {
             ListenerUtils.runListenerMethod(
-                listener, listenerMethods, name, data);
+                listener, listenerMethods, name, data, listenerDelivery);
+        }
+    }
+
+    protected void onExternalAPIEvent(
+            ListenerUtils.ListenerDispatcher<ListenerT> listenerDispatcher,
+            String name, ReadableMap data) {
+        ListenerT listener = getListener();
+
+        if (listener != null) {
+            ListenerUtils.runListenerMethod(
+                listener, listenerDispatcher, name, data, listenerDelivery);
         }
     }
 
@@ -217,4 +271,26 @@ public abstract class BaseReactView<ListenerT>
     public void setListener(ListenerT listener) {
         this.listener = listener;
     }
+
+    /**
+     * Gets the thread the methods of the listener are called on.
+     *
+     * @return The {@link ListenerDelivery} of the listener.
+     */
+    public ListenerDelivery getListenerDelivery() {
+        return listenerDelivery;
+    }
+
+    /**
+     * Sets the thread the methods of the listener are called on, the UI
+     * thread by default. Listeners which don't touch views can be called off
+     * the UI thread, so the events don't hop on and off the main looper. A
+     * {@link ListenerDelivery.SerialExecutor} is not shut down when replaced
+     * or when this view is disposed.
+     *
+     * @param listenerDelivery The {@link ListenerDelivery} of the listener.
+     */
+    public void setListenerDelivery(@NonNull ListenerDelivery listenerDelivery) {
+        this.listenerDelivery = listenerDelivery;
+    }
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2020. cabi LLC. All rights reserved.
+ */
+
+package org.jitsi.meet.sdk;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Queues events going to JavaScript and sends all the events queued during one
+ * main looper tick as a single batch event, i.e. in a single bridge crossing.
+ *
+ * Events are delivered in the order they were queued. Events queued with
+ * {@link #emitLatest(String, Object)} are "last writer wins": a pending event
+ * with the same name is dropped and the new one takes its place at the end of
+ * the batch.
+ *
+ * The batch is sent as an array of {@code { name, data }} objects.
+ */
+class BatchedEventEmitter {
+    /**
+     * The name of the event used for sending the batches.
+     */
+    private final String batchEventName;
+
+    /**
+     * {@link Handler} used for flushing the queue on the main looper.
+     */
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    /**
+     * The events waiting for the next flush. Coalescing events are keyed by
+     * their name, the rest by a unique key.
+     */
+    private final LinkedHashMap<Object, Event> pendingEvents = new LinkedHashMap<>();
+
+    /**
+     * Whether a flush has been scheduled already.
+     */
+    private boolean flushScheduled;
+
+    /**
+     * {@link Runnable} sending all the pending events to JavaScript.
+     */
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    BatchedEventEmitter(String batchEventName) {
+        this.batchEventName = batchEventName;
+    }
+
+    /**
+     * Queues an event. It will be sent with the next batch.
+     *
+     * @param name {@code String} containing the event name.
+     * @param data {@code Object} optional ancillary data for the event.
+     */
+    void emit(String name, @Nullable Object data) {
+        enqueue(new Object(), new Event(name, data));
+    }
+
+    /**
+     * Queues an event replacing any pending event with the same name.
+     *
+     * @param name {@code String} containing the event name.
+     * @param data {@code Object} optional ancillary data for the event.
+     */
+    void emitLatest(String name, @Nullable Object data) {
+        enqueue(name, new Event(name, data));
+    }
+
+    private synchronized void enqueue(Object key, Event event) {
+        // Remove first so the event moves to the end of the batch.
+        pendingEvents.remove(key);
+        pendingEvents.put(key, event);
+
+        if (!flushScheduled) {
+            flushScheduled = true;
+            handler.post(flushRunnable);
+        }
+    }
+
+    /**
+     * Sends all the pending events to JavaScript as one batch.
+     */
+    private void flush() {
+        WritableArray batch = Arguments.createArray();
+
+        synchronized (this) {
+            flushScheduled = false;
+
+            for (Iterator<Map.Entry<Object, Event>> i = pendingEvents.entrySet().iterator();
+                    i.hasNext();) {
+                batch.pushMap(i.next().getValue().toWritableMap());
+                i.remove();
+            }
+        }
+
+        if (batch.size() > 0) {
+            ReactInstanceManagerHolder.emitEvent(batchEventName, batch);
+        }
+    }
+
+    /**
+     * An event waiting to be sent.
+     */
+    private static class Event {
+        private final String name;
+        private final Object data;
+
+        Event(String name, @Nullable Object data) {
+            this.name = name;
+            this.data = data;
+        }
+
+        WritableMap toWritableMap() {
+            WritableMap map = Arguments.createMap();
+
+            map.putString("name", name);
+
+            if (data == null) {
+                map.putNull("data");
+            } else if (data instanceof Boolean) {
+                map.putBoolean("data", (Boolean) data);
+            } else {
+                map.putString("data", data.toString());
+            }
+
+            return map;
+        }
+    }
+}
@@ -0,0 +1,540 @@
+/*
+ * Copyright © 2020. cabi LLC. All rights reserved.
+ */
+
+package org.jitsi.meet.sdk;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.module.annotations.ReactModule;
+
+import org.jitsi.meet.sdk.log.JitsiMeetLogger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Estimates the quality of the connection natively, by fusing:
+ * <ul>
+ * <li>the default network, as reported by the connectivity callbacks
+ * (transport, validation, estimated downstream bandwidth);</li>
+ * <li>the WiFi link samples of {@link WiFiStatsModule} (RSSI average and
+ * variance, link speed), sampled while in a conference;</li>
+ * <li>the local connection quality reported by JS with
+ * {@code LOCAL_STATS_SAMPLE}, over a sliding window.</li>
+ * </ul>
+ * The estimate is a score from 0 to 100 and a suggested send profile. It's
+ * published to JS as {@link #UPDATE_EVENT} and to the
+ * {@link JitsiMeetViewListener}s as {@code CONNECTION_QUALITY_CHANGED}, when
+ * the profile changes or the score moves by {@link #SCORE_CHANGE}.
+ */
+@ReactModule(name = ConnectionQualityEstimator.NAME)
+class ConnectionQualityEstimator
+    extends ReactContextBaseJavaModule
+    implements WiFiStatsModule.SampleListener {
+
+    public static final String NAME = "ConnectionQuality";
+
+    private static final String TAG = NAME;
+
+    /**
+     * The external API event the estimate is published to the
+     * {@link JitsiMeetViewListener}s with.
+     */
+    static final String CONNECTION_QUALITY_CHANGED = "CONNECTION_QUALITY_CHANGED";
+
+    /**
+     * The event the estimate is published to JS with.
+     */
+    private static final String UPDATE_EVENT = "org.jitsi.meet:features/connection-quality#update";
+
+    /**
+     * The suggested send profiles, from the worst to the best connection.
+     */
+    static final String PROFILE_AUDIO_ONLY = "audio-only";
+    static final String PROFILE_LOW = "low";
+    static final String PROFILE_MEDIUM = "medium";
+    static final String PROFILE_HIGH = "high";
+
+    private static final String[] PROFILES
+        = { PROFILE_AUDIO_ONLY, PROFILE_LOW, PROFILE_MEDIUM, PROFILE_HIGH };
+
+    /**
+     * The minimum scores of the profiles after the first one.
+     */
+    private static final int[] PROFILE_THRESHOLDS = { 20, 45, 75 };
+
+    /**
+     * How much more than its threshold the score must be to move up to a
+     * better profile, so the profile doesn't flap around a threshold.
+     */
+    private static final int HYSTERESIS = 5;
+
+    /**
+     * The change of the score which is published even though the profile
+     * didn't change.
+     */
+    private static final int SCORE_CHANGE = 10;
+
+    /**
+     * The number of local connection quality reports in the sliding window,
+     * i.e. at least 50 seconds of reports.
+     */
+    private static final int LOCAL_WINDOW_SIZE = 10;
+
+    /**
+     * The drop of the latest local connection quality below the window's
+     * average which makes it count right away.
+     */
+    private static final double LOCAL_DROP = 15;
+
+    /**
+     * The weight of the local connection quality in the score, when known.
+     */
+    private static final double LOCAL_WEIGHT = 0.6;
+
+    private static final String TRANSPORT_NONE = "none";
+    private static final String TRANSPORT_WIFI = "wifi";
+    private static final String TRANSPORT_CELLULAR = "cellular";
+    private static final String TRANSPORT_ETHERNET = "ethernet";
+    private static final String TRANSPORT_OTHER = "other";
+
+    /**
+     * {@link ExecutorService} all the inputs are processed on.
+     */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final ConnectivityManager.NetworkCallback networkCallback
+        = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onCapabilitiesChanged(
+                    Network network,
+                    final NetworkCapabilities networkCapabilities) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        onNetworkChanged(networkCapabilities);
+                    }
+                });
+            }
+
+            @Override
+            public void onLost(Network network) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        onNetworkChanged(null);
+                    }
+                });
+            }
+        };
+
+    // The fields below are only accessed on the executor.
+
+    private String transport = TRANSPORT_NONE;
+
+    private boolean validated;
+
+    /**
+     * The estimated downstream bandwidth of the default network, in kbps, 0
+     * if unknown.
+     */
+    private int downstreamKbps;
+
+    /**
+     * The latest WiFi link statistics, {@code null} unless on WiFi.
+     */
+    private WiFiLinkSampler.Stats wifiStats;
+
+    /**
+     * The local connection quality reports, as a ring buffer.
+     */
+    private final double[] localQualities = new double[LOCAL_WINDOW_SIZE];
+
+    private int localNext;
+
+    private int localCount;
+
+    private boolean inConference;
+
+    /**
+     * The last estimate published in the current conference.
+     */
+    private volatile Estimate published;
+
+    ConnectionQualityEstimator(ReactApplicationContext reactContext) {
+        super(reactContext);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Map<String, Object> getConstants() {
+        Map<String, Object> constants = new HashMap<>();
+
+        constants.put("UPDATE_EVENT", UPDATE_EVENT);
+
+        return constants;
+    }
+
+    @Override
+    public void initialize() {
+        ConnectivityManager connectivityManager = getConnectivityManager();
+
+        if (connectivityManager != null) {
+            try {
+                connectivityManager.registerDefaultNetworkCallback(networkCallback);
+            } catch (RuntimeException e) {
+                JitsiMeetLogger.w(e, TAG + " Failed to register network callback");
+            }
+        }
+
+        WiFiStatsModule wifiStatsModule
+            = getReactApplicationContext().getNativeModule(WiFiStatsModule.class);
+
+        if (wifiStatsModule != null) {
+            wifiStatsModule.addSampleListener(this);
+        }
+    }
+
+    @Override
+    public void onCatalystInstanceDestroy() {
+        ConnectivityManager connectivityManager = getConnectivityManager();
+
+        if (connectivityManager != null) {
+            try {
+                connectivityManager.unregisterNetworkCallback(networkCallback);
+            } catch (RuntimeException e) {
+                // Not registered.
+            }
+        }
+
+        WiFiStatsModule wifiStatsModule
+            = getReactApplicationContext().getNativeModule(WiFiStatsModule.class);
+
+        if (wifiStatsModule != null) {
+            wifiStatsModule.removeSampleListener(this);
+        }
+
+        executor.shutdown();
+    }
+
+    private ConnectivityManager getConnectivityManager() {
+        return (ConnectivityManager)
+            getReactApplicationContext().getSystemService(Context.CONNECTIVITY_SERVICE);
+    }
+
+    /**
+     * Gets the last published estimate.
+     *
+     * @param promise - Resolved with the {@code score}, {@code profile} and
+     * {@code transport}, or {@code null} if nothing was published in the
+     * current conference yet.
+     */
+    @ReactMethod
+    public void getQuality(Promise promise) {
+        Estimate estimate = published;
+
+        promise.resolve(estimate == null ? null : estimate.toMap());
+    }
+
+    /**
+     * Processes the external API events, which carry the conference state and
+     * the local connection quality. Called by {@link ExternalAPIModule}.
+     */
+    void onExternalAPIEvent(final String name, final ReadableMap data) {
+        final double localQuality;
+
+        switch (name) {
+            case "CONFERENCE_JOINED":
+            case "CONFERENCE_TERMINATED":
+                localQuality = Double.NaN;
+                break;
+            case "LOCAL_STATS_SAMPLE":
+                // Rather than LOCAL_STATS_EVENT, which is only sent when the
+                // quality is poor.
+                if (data == null
+                        || !data.hasKey("connectionQuality")
+                        || data.getType("connectionQuality") != ReadableType.Number) {
+                    return;
+                }
+                localQuality = data.getDouble("connectionQuality");
+                break;
+            default:
+                return;
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                switch (name) {
+                    case "CONFERENCE_JOINED":
+                        setInConference(true);
+                        break;
+                    case "CONFERENCE_TERMINATED":
+                        setInConference(false);
+                        break;
+                    default:
+                        onLocalQuality(localQuality);
+                        break;
+                }
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Called on the thread of {@link WiFiStatsModule}.
+     */
+    @Override
+    public void onWiFiSample(final WiFiLinkSampler.Stats stats) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (TRANSPORT_WIFI.equals(transport)) {
+                    wifiStats = stats;
+                    update();
+                }
+            }
+        });
+    }
+
+    private void setInConference(boolean inConference) {
+        if (this.inConference == inConference) {
+            return;
+        }
+        this.inConference = inConference;
+
+        WiFiStatsModule wifiStatsModule
+            = getReactApplicationContext().getNativeModule(WiFiStatsModule.class);
+
+        if (wifiStatsModule != null) {
+            if (inConference) {
+                wifiStatsModule.startSampling(null);
+            } else {
+                wifiStatsModule.stopSampling();
+            }
+        }
+
+        // The local connection quality is per conference, and so are the
+        // estimates: the first one of the next conference is published
+        // whatever the last one of this conference was.
+        localNext = 0;
+        localCount = 0;
+        if (inConference) {
+            update();
+        } else {
+            published = null;
+        }
+    }
+
+    private void onLocalQuality(double quality) {
+        localQualities[localNext] = Math.max(0, Math.min(100, quality));
+        localNext = (localNext + 1) % LOCAL_WINDOW_SIZE;
+        if (localCount < LOCAL_WINDOW_SIZE) {
+            localCount++;
+        }
+        update();
+    }
+
+    private void onNetworkChanged(NetworkCapabilities capabilities) {
+        String transport;
+
+        if (capabilities == null) {
+            transport = TRANSPORT_NONE;
+        } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI)) {
+            transport = TRANSPORT_WIFI;
+        } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_CELLULAR)) {
+            transport = TRANSPORT_CELLULAR;
+        } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_ETHERNET)) {
+            transport = TRANSPORT_ETHERNET;
+        } else {
+            transport = TRANSPORT_OTHER;
+        }
+
+        if (!transport.equals(this.transport)) {
+            // The WiFi samples are of another network, if any.
+            wifiStats = null;
+        }
+        this.transport = transport;
+        validated
+            = capabilities != null
+                && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED);
+        downstreamKbps
+            = capabilities != null ? capabilities.getLinkDownstreamBandwidthKbps() : 0;
+
+        update();
+    }
+
+    /**
+     * Computes the score of the network link alone.
+     */
+    private double computeLinkScore() {
+        double score;
+
+        switch (transport) {
+            case TRANSPORT_NONE:
+                return 0;
+            case TRANSPORT_WIFI:
+                if (wifiStats != null) {
+                    // -90 dBm and below is unusable, -50 dBm and above is as
+                    // good as it gets. An unstable signal is worse than its
+                    // average says.
+                    score = (wifiStats.rssiAverage + 90) * 100 / 40;
+                    score -= Math.min(30, 2 * Math.sqrt(wifiStats.rssiVariance));
+                    if (wifiStats.linkSpeedAverage > 0) {
+                        score = Math.min(score, wifiStats.linkSpeedAverage * 10);
+                    }
+                    break;
+                }
+                // Fall through, estimate from the bandwidth until sampled.
+            default:
+                // 5 Mbps and above is as good as it gets.
+                score = downstreamKbps > 0 ? downstreamKbps / 50.0 : 70;
+                break;
+        }
+
+        if (!validated) {
+            score = Math.min(score, 30);
+        }
+
+        return Math.max(0, Math.min(100, score));
+    }
+
+    /**
+     * Computes the local connection quality over the sliding window.
+     *
+     * @return The quality, {@code NaN} if unknown.
+     */
+    private double computeLocalScore() {
+        if (localCount == 0) {
+            return Double.NaN;
+        }
+
+        double sum = 0;
+
+        for (int i = 0; i < localCount; i++) {
+            sum += localQualities[i];
+        }
+
+        double average = sum / localCount;
+        double last = localQualities[(localNext + LOCAL_WINDOW_SIZE - 1) % LOCAL_WINDOW_SIZE];
+
+        // React to a degradation right away, recover smoothly.
+        return last < average - LOCAL_DROP ? last : average;
+    }
+
+    /**
+     * Recomputes the estimate and publishes it if it changed enough.
+     */
+    private void update() {
+        if (!inConference) {
+            return;
+        }
+
+        double linkScore = computeLinkScore();
+        double localScore = computeLocalScore();
+        int score
+            = (int) Math.round(
+                Double.isNaN(localScore)
+                    ? linkScore
+                    : LOCAL_WEIGHT * localScore + (1 - LOCAL_WEIGHT) * linkScore);
+        Estimate previous = published;
+        int profile = computeProfile(score, previous == null ? -1 : previous.profile);
+
+        if (previous != null
+                && previous.profile == profile
+                && Math.abs(previous.score - score) < SCORE_CHANGE
+                && previous.transport.equals(transport)) {
+            return;
+        }
+
+        Estimate estimate = new Estimate(score, profile, transport);
+
+        published = estimate;
+        JitsiMeetLogger.d(TAG + " Connection quality: " + estimate);
+
+        ReactInstanceManagerHolder.emitEvent(UPDATE_EVENT, estimate.toMap());
+
+        for (BaseReactView view : BaseReactView.getViews()) {
+            if (view instanceof JitsiMeetView) {
+                view.onExternalAPIEvent(CONNECTION_QUALITY_CHANGED, estimate.toMap());
+            }
+        }
+    }
+
+    /**
+     * Picks the profile for a specific score.
+     *
+     * @param score - The score.
+     * @param current - The index of the current profile, -1 if none.
+     * @return The index of the profile in {@link #PROFILES}.
+     */
+    private static int computeProfile(int score, int current) {
+        int profile = 0;
+
+        while (profile < PROFILE_THRESHOLDS.length) {
+            int threshold = PROFILE_THRESHOLDS[profile];
+
+            if (current != -1 && profile >= current) {
+                // Moving up from the current profile.
+                threshold += HYSTERESIS;
+            }
+            if (score < threshold) {
+                break;
+            }
+            profile++;
+        }
+
+        return profile;
+    }
+
+    /**
+     * A published estimate.
+     */
+    private static class Estimate {
+        final int score;
+
+        final int profile;
+
+        final String transport;
+
+        Estimate(int score, int profile, String transport) {
+            this.score = score;
+            this.profile = profile;
+            this.transport = transport;
+        }
+
+        WritableMap toMap() {
+            WritableMap map = Arguments.createMap();
+
+            map.putInt("score", score);
+            map.putString("profile", PROFILES[profile]);
+            map.putString("transport", transport);
+
+            return map;
+        }
+
+        @Override
+        public String toString() {
+            return score + " " + PROFILES[profile] + " (" + transport + ")";
+        }
+    }
+}
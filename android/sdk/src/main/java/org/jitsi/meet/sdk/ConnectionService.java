@@ -5,6 +5,8 @@ import android.content.Context;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.telecom.CallAudioState;
 import android.telecom.Connection;
 import android.telecom.ConnectionRequest;
@@ -21,11 +23,10 @@ import com.facebook.react.bridge.WritableNativeMap;
 
 import org.jitsi.meet.sdk.log.JitsiMeetLogger;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Jitsi Meet implementation of {@link ConnectionService}. At the time of this
@@ -53,16 +54,28 @@ public class ConnectionService extends android.telecom.ConnectionService {
         = "org.jitsi.meet.sdk.connection_service.PHONE_ACCOUNT_HANDLE";
 
     /**
-     * Connections mapped by call UUID.
+     * The time after which a start call Promise which the system didn't
+     * answer is rejected, in milliseconds.
      */
-    static private final Map<String, ConnectionImpl> connections
-            = new HashMap<>();
+    static final long START_CALL_TIMEOUT_MS = 15000;
+
+    /**
+     * Connections mapped by call UUID. Accessed from the telecom, React Native
+     * modules and audio threads.
+     */
+    static private final ConcurrentHashMap<String, ConnectionImpl> connections
+            = new ConcurrentHashMap<>();
 
     /**
      * The start call Promises mapped by call UUID.
      */
-    static private final HashMap<String, Promise> startCallPromises
-            = new HashMap<>();
+    static private final ConcurrentHashMap<String, StartCall> startCallPromises
+            = new ConcurrentHashMap<>();
+
+    /**
+     * {@link Handler} used for timing out start call Promises.
+     */
+    static private final Handler handler = new Handler(Looper.getMainLooper());
 
     /**
      * Aborts all ongoing connections. This is a last resort mechanism which forces all resources to
@@ -86,10 +99,11 @@ public class ConnectionService extends android.telecom.ConnectionService {
     /**
      * Returns all {@link ConnectionImpl} instances held in this list.
      *
-     * @return a list of {@link ConnectionImpl}.
+     * @return a live, read-only view of the {@link ConnectionImpl}s. It can be
+     * iterated while connections are added or removed, from any thread.
      */
-    static List<ConnectionImpl> getConnections() {
-        return new ArrayList<>(connections.values());
+    static Collection<ConnectionImpl> getConnections() {
+        return Collections.unmodifiableCollection(connections.values());
     }
 
     /**
@@ -100,22 +114,47 @@ public class ConnectionService extends android.telecom.ConnectionService {
     }
 
     /**
-     * Registers a start call promise.
+     * Registers a start call promise. It's rejected if it's still registered
+     * after {@link #START_CALL_TIMEOUT_MS}.
      *
      * @param uuid - the call UUID to which the start call promise belongs to.
      * @param promise - the Promise instance to be stored for later use.
      */
-    static void registerStartCallPromise(String uuid, Promise promise) {
-        startCallPromises.put(uuid, promise);
+    static void registerStartCallPromise(final String uuid, Promise promise) {
+        final StartCall startCall = new StartCall(promise);
+
+        startCall.timeout = new Runnable() {
+            @Override
+            public void run() {
+                if (startCallPromises.remove(uuid, startCall)) {
+                    JitsiMeetLogger.w(TAG + " startCall timed out for UUID: " + uuid);
+                    startCall.promise.reject(
+                        "START_CALL_TIMEOUT",
+                        "The system didn't create the call in time");
+                }
+            }
+        };
+
+        StartCall previous = startCallPromises.put(uuid, startCall);
+
+        if (previous != null) {
+            handler.removeCallbacks(previous.timeout);
+            previous.promise.reject(
+                "START_CALL_SUPERSEDED",
+                "Another call was started with the same UUID");
+        }
+
+        handler.postDelayed(startCall.timeout, START_CALL_TIMEOUT_MS);
     }
 
     /**
-     * Removes {@link ConnectionImpl} from the list.
+     * Removes {@link ConnectionImpl} from the list, unless it was replaced by
+     * another connection with the same call UUID already.
      *
      * @param connection - {@link ConnectionImpl}
      */
     static void removeConnection(ConnectionImpl connection) {
-        connections.remove(connection.getCallUUID());
+        connections.remove(connection.getCallUUID(), connection);
     }
 
     /**
@@ -178,7 +217,15 @@ public class ConnectionService extends android.telecom.ConnectionService {
      *         wasn't any for the given call UUID.
      */
     static Promise unregisterStartCallPromise(String uuid) {
-        return startCallPromises.remove(uuid);
+        StartCall startCall = startCallPromises.remove(uuid);
+
+        if (startCall == null) {
+            return null;
+        }
+
+        handler.removeCallbacks(startCall.timeout);
+
+        return startCall.promise;
     }
 
     /**
@@ -233,19 +280,27 @@ public class ConnectionService extends android.telecom.ConnectionService {
             Objects.requireNonNull(request.getAccountHandle(), "accountHandle"));
         connection.putExtras(moreExtras);
 
-        addConnection(connection);
-
         Promise startCallPromise
             = unregisterStartCallPromise(connection.getCallUUID());
 
-        if (startCallPromise != null) {
-            JitsiMeetLogger.d(TAG + " onCreateOutgoingConnection " + connection.getCallUUID());
-            startCallPromise.resolve(null);
-        } else {
+        if (startCallPromise == null) {
+            // The start call timed out or was superseded: JavaScript went on
+            // without ConnectionService. Don't leave a call nobody will end
+            // holding the audio route.
             JitsiMeetLogger.e(
-                TAG + " onCreateOutgoingConnection: no start call Promise for " + connection.getCallUUID());
+                TAG + " onCreateOutgoingConnection: no start call Promise for "
+                    + connection.getCallUUID() + ", canceling the call");
+            connection.setDisconnected(new DisconnectCause(DisconnectCause.CANCELED));
+            connection.destroy();
+
+            return connection;
         }
 
+        addConnection(connection);
+
+        JitsiMeetLogger.d(TAG + " onCreateOutgoingConnection " + connection.getCallUUID());
+        startCallPromise.resolve(null);
+
         return connection;
     }
 
@@ -333,6 +388,19 @@ public class ConnectionService extends android.telecom.ConnectionService {
         return phoneAccountHandle;
     }
 
+    /**
+     * A start call Promise waiting for the system to create the call.
+     */
+    private static class StartCall {
+        final Promise promise;
+
+        Runnable timeout;
+
+        StartCall(Promise promise) {
+            this.promise = promise;
+        }
+    }
+
     /**
      * Connection implementation for Jitsi Meet's {@link ConnectionService}.
      *
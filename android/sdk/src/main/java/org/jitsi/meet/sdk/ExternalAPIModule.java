@@ -70,6 +70,14 @@ class ExternalAPIModule
         // Keep track of the current ongoing conference.
         OngoingConferenceTracker.getInstance().onExternalAPIEvent(name, data);
 
+        // Feed the native connection quality estimate.
+        ConnectionQualityEstimator connectionQualityEstimator
+            = getReactApplicationContext().getNativeModule(ConnectionQualityEstimator.class);
+
+        if (connectionQualityEstimator != null) {
+            connectionQualityEstimator.onExternalAPIEvent(name, data);
+        }
+
         // The JavaScript App needs to provide uniquely identifying information
         // to the native ExternalAPI module so that the latter may match the
         // former to the native BaseReactView which hosts it.
@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2020. cabi LLC. All rights reserved.
+ */
+
+package org.jitsi.meet.sdk;
+
+import androidx.annotation.Nullable;
+
+import org.jitsi.meet.sdk.log.JitsiMeetLogger;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hashing helpers, e.g. to key caches by content.
+ */
+final class Hashing {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private Hashing() {
+    }
+
+    /**
+     * Computes the SHA-256 digest of a specific {@code String}.
+     *
+     * @param s - The {@code String} to digest, encoded as UTF-8.
+     * @return The hex encoded digest, or {@code null} if SHA-256 is not
+     * available.
+     */
+    @Nullable
+    static String sha256(String s) {
+        byte[] digest;
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(s.getBytes(UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            JitsiMeetLogger.w(e, "SHA-256 not available");
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder(digest.length * 2);
+
+        for (byte b : digest) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+
+        return sb.toString();
+    }
+}
@@ -16,38 +16,70 @@
 
 package org.jitsi.meet.sdk;
 
+import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.module.annotations.ReactModule;
-import com.squareup.duktape.Duktape;
+
+import java.util.Map;
 
 @ReactModule(name = JavaScriptSandboxModule.NAME)
 class JavaScriptSandboxModule extends ReactContextBaseJavaModule {
     public static final String NAME = "JavaScriptSandbox";
 
+    /**
+     * The pool of VMs the code is evaluated in.
+     */
+    private final JavaScriptSandboxPool pool = new JavaScriptSandboxPool();
+
     public JavaScriptSandboxModule(ReactApplicationContext reactContext) {
         super(reactContext);
     }
 
     /**
-     * Evaluates the given code in a Duktape VM.
+     * Evaluates the given code in a pooled Duktape VM, off the native modules
+     * thread.
      * @param code - The code that needs to evaluated.
      * @param promise - Resolved with the output in case of success or rejected with an exception
-     *                in case of failure.
+     *                in case of failure (including a timeout).
      */
     @ReactMethod
-    public void evaluate(String code, Promise promise) {
-        Duktape vm = Duktape.create();
-        try {
-            Object res = vm.evaluate(code);
-            promise.resolve(res.toString());
-        } catch (Throwable tr) {
-            promise.reject(tr);
-        } finally {
-            vm.close();
+    public void evaluate(String code, final Promise promise) {
+        pool.evaluate(code, new JavaScriptSandboxPool.Callback() {
+            @Override
+            public void onResult(String result) {
+                promise.resolve(result);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                promise.reject(error);
+            }
+        });
+    }
+
+    /**
+     * Gets the metrics of the VM pool, see
+     * {@link JavaScriptSandboxPool#getMetrics()}.
+     * @param promise - Resolved with the metrics, by name.
+     */
+    @ReactMethod
+    public void getMetrics(Promise promise) {
+        WritableMap metrics = Arguments.createMap();
+
+        for (Map.Entry<String, Long> entry : pool.getMetrics().entrySet()) {
+            metrics.putDouble(entry.getKey(), entry.getValue());
         }
+
+        promise.resolve(metrics);
+    }
+
+    @Override
+    public void onCatalystInstanceDestroy() {
+        pool.shutdown();
     }
 
     @Override
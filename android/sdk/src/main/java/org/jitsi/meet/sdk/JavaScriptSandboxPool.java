@@ -0,0 +1,497 @@
+/*
+ * Copyright © 2020. cabi LLC. All rights reserved.
+ */
+
+package org.jitsi.meet.sdk;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.squareup.duktape.Duktape;
+
+import org.jitsi.meet.sdk.log.JitsiMeetLogger;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates code in Duktape VMs which are pooled and reused instead of being
+ * created for every evaluation. Evaluations run on a dedicated executor, not
+ * on the thread of the caller.
+ *
+ * Each VM gets its global object reset to what it was when the VM was created
+ * before being returned to the pool. VMs which can't be reset, have been used
+ * {@link #MAX_USES} times or whose evaluation timed out are discarded. Note
+ * that Duktape evaluations cannot be interrupted: a timed out evaluation is
+ * failed right away, but keeps its executor thread until it completes. So the
+ * evaluations which follow don't wait for it, the executor gets a replacement
+ * thread meanwhile, for up to {@link #MAX_STUCK_THREADS} such evaluations.
+ *
+ * Duktape 1.x cannot precompile scripts, so instead of compiled scripts the
+ * results of successful evaluations are cached by the SHA-256 of the code.
+ * This assumes the evaluated code is pure, which holds for what goes through
+ * the sandbox (config and token decoding scripts): the sandbox gives it no
+ * access to anything but its own, freshly reset global object.
+ */
+class JavaScriptSandboxPool {
+    /**
+     * The name of the {@code JavaScriptSandboxPool} class to be used as the
+     * tag in log messages.
+     */
+    private static final String TAG = JavaScriptSandboxPool.class.getSimpleName();
+
+    /**
+     * The maximum number of evaluations running at the same time, which is
+     * also the maximum number of pooled VMs.
+     */
+    private static final int MAX_VMS = 2;
+
+    /**
+     * The number of evaluations after which a VM is discarded, so state which
+     * the reset can't undo (e.g. modified built-ins) doesn't live forever.
+     */
+    private static final int MAX_USES = 50;
+
+    /**
+     * The number of results kept in {@link #resultCache}.
+     */
+    private static final int RESULT_CACHE_SIZE = 8;
+
+    /**
+     * The time after which an evaluation is failed, in milliseconds.
+     */
+    private static final long TIMEOUT_MS = 10000;
+
+    /**
+     * The maximum number of threads running timed out evaluations which are
+     * replaced. Past it, code which never completes does use up the pool.
+     */
+    private static final int MAX_STUCK_THREADS = 4;
+
+    /**
+     * The name of the global holding the names of the globals a VM was created
+     * with.
+     */
+    private static final String BASELINE_GLOBAL = "__sandboxBaseline__";
+
+    /**
+     * Records the globals of a new VM.
+     */
+    private static final String BASELINE_SCRIPT
+        = "Object.defineProperty(this, '" + BASELINE_GLOBAL + "', {"
+            + " value: Object.getOwnPropertyNames(this) });"
+            + " true;";
+
+    /**
+     * Removes the globals which were not there when the VM was created.
+     * Non-configurable ones (i.e. {@code var} declarations) are reset to
+     * {@code undefined} instead. Evaluates to {@code true} if the global
+     * object is back to its baseline.
+     */
+    private static final String RESET_SCRIPT
+        = "(function (g) {"
+            + " var keep = {}, baseline = g." + BASELINE_GLOBAL + ", names, i, n, clean = true;"
+            + " for (i = 0; i < baseline.length; i++) { keep[baseline[i]] = true; }"
+            + " keep." + BASELINE_GLOBAL + " = true;"
+            + " names = Object.getOwnPropertyNames(g);"
+            + " for (i = 0; i < names.length; i++) {"
+            + "  n = names[i];"
+            + "  if (!keep[n] && !delete g[n]) {"
+            + "   try { g[n] = undefined; } catch (e) {}"
+            + "   clean = clean && g[n] === undefined;"
+            + "  }"
+            + " }"
+            + " return clean;"
+            + "})(this);";
+
+    /**
+     * The executor running the evaluations: {@link #MAX_VMS} threads, plus one
+     * per thread stuck in a timed out evaluation.
+     */
+    private final ThreadPoolExecutor executor
+        = new ThreadPoolExecutor(
+            MAX_VMS,
+            MAX_VMS,
+            30,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    return new Thread(r, "JavaScriptSandbox-" + count.incrementAndGet());
+                }
+            });
+
+    /**
+     * {@link Handler} used for timing out evaluations.
+     */
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    /**
+     * The VMs which are ready to be used. Guarded by {@code this}.
+     */
+    private final ArrayDeque<Sandbox> idle = new ArrayDeque<>();
+
+    /**
+     * The results of the last evaluations, by the SHA-256 of the code.
+     * Guarded by itself.
+     */
+    private final LinkedHashMap<String, String> resultCache
+        = new LinkedHashMap<String, String>(RESULT_CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > RESULT_CACHE_SIZE;
+            }
+        };
+
+    /**
+     * Whether {@link #shutdown()} was called. Guarded by {@code this}.
+     */
+    private boolean shutdown;
+
+    /**
+     * The number of threads running timed out evaluations which were
+     * replaced. Guarded by {@code this}.
+     */
+    private int stuckThreads;
+
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong poolHits = new AtomicLong();
+    private final AtomicLong poolMisses = new AtomicLong();
+    private final AtomicLong evaluations = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong discardedVms = new AtomicLong();
+    private final AtomicLong totalEvaluationNanos = new AtomicLong();
+    private final AtomicLong maxEvaluationNanos = new AtomicLong();
+
+    /**
+     * Evaluates code asynchronously.
+     *
+     * @param code - The code to evaluate.
+     * @param callback - Notified of the outcome, exactly once, on an arbitrary
+     * thread.
+     */
+    void evaluate(final String code, final Callback callback) {
+        final String hash = Hashing.sha256(code);
+
+        if (hash != null) {
+            String result;
+
+            synchronized (resultCache) {
+                result = resultCache.get(hash);
+            }
+            if (result != null) {
+                cacheHits.incrementAndGet();
+                callback.onResult(result);
+                return;
+            }
+        }
+
+        final AtomicBoolean done = new AtomicBoolean();
+        final Evaluation evaluation = new Evaluation();
+        final Runnable timeout = new Runnable() {
+            @Override
+            public void run() {
+                if (done.compareAndSet(false, true)) {
+                    timeouts.incrementAndGet();
+                    evaluation.timedOut = true;
+                    replaceThread(evaluation);
+                    callback.onError(
+                        new Exception("Evaluation timed out after " + TIMEOUT_MS + " ms"));
+                }
+            }
+        };
+
+        handler.postDelayed(timeout, TIMEOUT_MS);
+
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    // Timed out while queued, nobody waits for the result.
+                    if (!onEvaluationStarted(evaluation)) {
+                        return;
+                    }
+
+                    String result = null;
+                    Throwable error = null;
+
+                    try {
+                        result = evaluate(code, evaluation);
+                    } catch (Throwable tr) {
+                        error = tr;
+                    } finally {
+                        onEvaluationCompleted(evaluation);
+                    }
+
+                    handler.removeCallbacks(timeout);
+                    if (!done.compareAndSet(false, true)) {
+                        return;
+                    }
+
+                    if (error == null) {
+                        if (hash != null) {
+                            synchronized (resultCache) {
+                                resultCache.put(hash, result);
+                            }
+                        }
+                        callback.onResult(result);
+                    } else {
+                        failures.incrementAndGet();
+                        callback.onError(error);
+                    }
+                }
+            });
+        } catch (RuntimeException re) {
+            // Rejected because the pool was shut down.
+            handler.removeCallbacks(timeout);
+            if (done.compareAndSet(false, true)) {
+                callback.onError(re);
+            }
+        }
+    }
+
+    /**
+     * Marks an evaluation as running on the current thread.
+     *
+     * @return {@code false} if the evaluation timed out already and is not to
+     * be run.
+     */
+    private synchronized boolean onEvaluationStarted(Evaluation evaluation) {
+        if (evaluation.timedOut) {
+            return false;
+        }
+        evaluation.running = true;
+
+        return true;
+    }
+
+    /**
+     * Marks an evaluation as completed, giving back the replacement of its
+     * thread, if any.
+     */
+    private synchronized void onEvaluationCompleted(Evaluation evaluation) {
+        evaluation.running = false;
+        if (evaluation.replaced) {
+            stuckThreads--;
+            resizeExecutor();
+        }
+    }
+
+    /**
+     * Adds a thread to the executor in place of the one running a timed out
+     * evaluation, which can't be interrupted.
+     */
+    private synchronized void replaceThread(Evaluation evaluation) {
+        if (!evaluation.running || shutdown) {
+            return;
+        }
+        if (stuckThreads >= MAX_STUCK_THREADS) {
+            JitsiMeetLogger.w(TAG + " Too many stuck evaluations, not replacing their threads");
+            return;
+        }
+
+        evaluation.replaced = true;
+        stuckThreads++;
+        resizeExecutor();
+    }
+
+    private void resizeExecutor() {
+        int size = MAX_VMS + stuckThreads;
+
+        // The maximum size can't be below the core size.
+        if (size > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(size);
+            executor.setCorePoolSize(size);
+        } else {
+            executor.setCorePoolSize(size);
+            executor.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * Evaluates code in a pooled VM. Runs on {@link #executor}.
+     */
+    private String evaluate(String code, Evaluation evaluation) {
+        Sandbox sandbox = acquire();
+        long start = System.nanoTime();
+        Object res;
+
+        try {
+            res = sandbox.vm.evaluate(code);
+        } finally {
+            recordLatency(System.nanoTime() - start);
+
+            // A VM whose evaluation timed out is not trusted anymore, even if
+            // the evaluation did complete eventually.
+            release(sandbox, !evaluation.timedOut && sandbox.reset());
+        }
+
+        return res.toString();
+    }
+
+    private Sandbox acquire() {
+        Sandbox sandbox;
+
+        synchronized (this) {
+            sandbox = idle.poll();
+        }
+
+        if (sandbox != null) {
+            poolHits.incrementAndGet();
+        } else {
+            poolMisses.incrementAndGet();
+            sandbox = new Sandbox();
+        }
+
+        sandbox.uses++;
+
+        return sandbox;
+    }
+
+    private void release(Sandbox sandbox, boolean reusable) {
+        if (reusable && sandbox.uses < MAX_USES) {
+            synchronized (this) {
+                if (!shutdown && idle.size() < MAX_VMS) {
+                    idle.add(sandbox);
+                    return;
+                }
+            }
+        }
+
+        discardedVms.incrementAndGet();
+        sandbox.vm.close();
+    }
+
+    private void recordLatency(long nanos) {
+        evaluations.incrementAndGet();
+        totalEvaluationNanos.addAndGet(nanos);
+
+        long max;
+
+        do {
+            max = maxEvaluationNanos.get();
+        } while (nanos > max && !maxEvaluationNanos.compareAndSet(max, nanos));
+    }
+
+    /**
+     * Gets a snapshot of the metrics of this pool.
+     *
+     * NOTE: Duktape 1.x doesn't expose the memory used by a VM, the number of
+     * VMs created ({@code poolMisses}) is reported instead.
+     *
+     * @return The metrics, by name.
+     */
+    Map<String, Long> getMetrics() {
+        Map<String, Long> metrics = new HashMap<>();
+        long evaluations = this.evaluations.get();
+        int idleVms;
+        int stuckThreads;
+
+        synchronized (this) {
+            idleVms = idle.size();
+            stuckThreads = this.stuckThreads;
+        }
+
+        metrics.put("cacheHits", cacheHits.get());
+        metrics.put("poolHits", poolHits.get());
+        metrics.put("poolMisses", poolMisses.get());
+        metrics.put("evaluations", evaluations);
+        metrics.put("failures", failures.get());
+        metrics.put("timeouts", timeouts.get());
+        metrics.put("discardedVms", discardedVms.get());
+        metrics.put("idleVms", (long) idleVms);
+        metrics.put("stuckThreads", (long) stuckThreads);
+        metrics.put(
+            "avgEvaluationMs",
+            evaluations == 0 ? 0 : totalEvaluationNanos.get() / evaluations / 1000000);
+        metrics.put("maxEvaluationMs", maxEvaluationNanos.get() / 1000000);
+
+        return metrics;
+    }
+
+    /**
+     * Closes the idle VMs and stops accepting evaluations. The running ones
+     * complete and their VMs are closed.
+     */
+    void shutdown() {
+        synchronized (this) {
+            shutdown = true;
+            for (Sandbox sandbox : idle) {
+                sandbox.vm.close();
+            }
+            idle.clear();
+        }
+
+        executor.shutdown();
+
+        JitsiMeetLogger.d(TAG + " Shut down, metrics: " + getMetrics());
+    }
+
+    /**
+     * Notified of the outcome of an evaluation.
+     */
+    interface Callback {
+        void onResult(String result);
+
+        void onError(Throwable error);
+    }
+
+    /**
+     * The state of an evaluation shared with its timeout.
+     */
+    private static class Evaluation {
+        volatile boolean timedOut;
+
+        /**
+         * Whether the evaluation is running on an executor thread. Guarded by
+         * the pool.
+         */
+        boolean running;
+
+        /**
+         * Whether the thread running the evaluation was replaced because it
+         * timed out. Guarded by the pool.
+         */
+        boolean replaced;
+    }
+
+    /**
+     * A pooled VM.
+     */
+    private static class Sandbox {
+        final Duktape vm = Duktape.create();
+
+        int uses;
+
+        Sandbox() {
+            vm.evaluate(BASELINE_SCRIPT);
+        }
+
+        /**
+         * Resets the global object to the baseline.
+         *
+         * @return {@code true} if the VM can be reused.
+         */
+        boolean reset() {
+            try {
+                return Boolean.TRUE.equals(vm.evaluate(RESET_SCRIPT));
+            } catch (Throwable tr) {
+                JitsiMeetLogger.w(tr, TAG + " Failed to reset sandbox");
+                return false;
+            }
+        }
+    }
+}
@@ -16,6 +16,7 @@
  */
 package org.jitsi.meet.sdk;
 
+import android.app.Application;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.os.Bundle;
@@ -31,6 +32,12 @@ public class JitsiMeet {
      */
     private static JitsiMeetConferenceOptions defaultConferenceOptions;
 
+    /**
+     * {@link #defaultConferenceOptions} as props, computed once per
+     * {@link #setDefaultConferenceOptions(JitsiMeetConferenceOptions)} call.
+     */
+    private static Bundle defaultProps;
+
     public static JitsiMeetConferenceOptions getDefaultConferenceOptions() {
         return defaultConferenceOptions;
     }
@@ -40,6 +47,20 @@ public class JitsiMeet {
             throw new RuntimeException("'room' must be null in the default conference options");
         }
         defaultConferenceOptions = options;
+        defaultProps = null;
+    }
+
+    /**
+     * Starts loading the React Native bridge and the JavaScript bundle in the
+     * background, so the first {@link JitsiMeetView} which gets created
+     * doesn't need to wait for it. Meant to be called as early as possible,
+     * typically from {@code Application#onCreate}. Calling it more than once
+     * has no effect.
+     *
+     * @param application - The current {@link Application}.
+     */
+    public static void prewarm(Application application) {
+        ReactInstanceManagerHolder.prewarm(application);
     }
 
     /**
@@ -54,14 +75,19 @@ public class JitsiMeet {
     /**
      * Helper to get the default conference options as a {@link Bundle}.
      *
+     * NOTE: The returned {@link Bundle} is cached and MUST NOT be modified.
+     *
      * @return a {@link Bundle} with the default conference options.
      */
     static Bundle getDefaultProps() {
-        if (defaultConferenceOptions != null) {
-            return defaultConferenceOptions.asProps();
+        if (defaultProps == null) {
+            defaultProps
+                = defaultConferenceOptions != null
+                    ? defaultConferenceOptions.asProps()
+                    : new Bundle();
         }
 
-        return new Bundle();
+        return defaultProps;
     }
 
     /**
@@ -258,6 +258,16 @@ public class JitsiMeetActivity extends FragmentActivity
         JitsiMeetLogger.i("Local stats event: " + data);
     }
 
+    @Override
+    public void onLocalStatsSummary(Map<String, Object> data) {
+        JitsiMeetLogger.i("Local stats summary: " + data);
+    }
+
+    @Override
+    public void onConnectionQualityChanged(Map<String, Object> data) {
+        JitsiMeetLogger.i("Connection quality changed: " + data);
+    }
+
     @Override
     public void onShopButtonEvent(Map<String, Object> data) {
         JitsiMeetLogger.i("Shop button event: " + data);
@@ -16,10 +16,14 @@
 
 package org.jitsi.meet.sdk;
 
+import android.os.BadParcelableException;
 import android.os.Bundle;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import org.jitsi.meet.sdk.log.JitsiMeetLogger;
+
+import java.net.MalformedURLException;
 import java.net.URL;
 
 
@@ -32,6 +36,31 @@ import java.net.URL;
  * conference will be joined.
  */
 public class JitsiMeetConferenceOptions implements Parcelable {
+    /**
+     * Marks parcels in the versioned format, see {@link #writeToParcel}. The
+     * lowest byte holds the version. Parcels in the legacy format start with
+     * the length of a {@code String} or -1 instead, which never match.
+     */
+    private static final int PARCEL_MAGIC = 0x4A4D4300;
+
+    /**
+     * The version of the parcel format written by {@link #writeToParcel}.
+     */
+    private static final int PARCEL_VERSION = 1;
+
+    /**
+     * Bits of the presence flags of the parcel format.
+     */
+    private static final int PARCEL_HAS_SERVER_URL = 1;
+    private static final int PARCEL_HAS_COLOR_SCHEME = 1 << 1;
+    private static final int PARCEL_HAS_USER_INFO = 1 << 2;
+    private static final int PARCEL_HAS_AUDIO_MUTED = 1 << 3;
+    private static final int PARCEL_AUDIO_MUTED = 1 << 4;
+    private static final int PARCEL_HAS_AUDIO_ONLY = 1 << 5;
+    private static final int PARCEL_AUDIO_ONLY = 1 << 6;
+    private static final int PARCEL_HAS_VIDEO_MUTED = 1 << 7;
+    private static final int PARCEL_VIDEO_MUTED = 1 << 8;
+
     /**
      * Server where the conference should take place.
      */
@@ -76,6 +105,12 @@ public class JitsiMeetConferenceOptions implements Parcelable {
      */
     private JitsiMeetUserInfo userInfo;
 
+    /**
+     * The React Native props equivalent of these options, computed once by
+     * {@link #freeze()}.
+     */
+    private Bundle props;
+
     public URL getServerURL() {
         return serverURL;
     }
@@ -294,13 +329,18 @@ public class JitsiMeetConferenceOptions implements Parcelable {
             options.subject = this.subject;
             options.token = this.token;
             options.configJsonString = this.configJsonString;
-            options.colorScheme = this.colorScheme;
-            options.featureFlags = this.featureFlags;
+            // Copy the Bundles so later changes to this Builder don't leak
+            // into the built options.
+            options.colorScheme
+                = this.colorScheme != null ? new Bundle(this.colorScheme) : null;
+            options.featureFlags = new Bundle(this.featureFlags);
             options.audioMuted = this.audioMuted;
             options.audioOnly = this.audioOnly;
             options.videoMuted = this.videoMuted;
             options.userInfo = this.userInfo;
 
+            options.freeze();
+
             return options;
         }
     }
@@ -309,6 +349,50 @@ public class JitsiMeetConferenceOptions implements Parcelable {
     }
 
     private JitsiMeetConferenceOptions(Parcel in) {
+        int start = in.dataPosition();
+        int header = in.readInt();
+
+        if ((header & 0xFFFFFF00) != PARCEL_MAGIC) {
+            in.setDataPosition(start);
+            readLegacyParcel(in);
+        } else if ((header & 0xFF) == PARCEL_VERSION) {
+            int presence = in.readInt();
+
+            if ((presence & PARCEL_HAS_SERVER_URL) != 0) {
+                String url = in.readString();
+
+                try {
+                    serverURL = new URL(url);
+                } catch (MalformedURLException e) {
+                    JitsiMeetLogger.w(e, "Invalid server URL in parcel: " + url);
+                }
+            }
+            room = in.readString();
+            subject = in.readString();
+            token = in.readString();
+            configJsonString = in.readString();
+            if ((presence & PARCEL_HAS_COLOR_SCHEME) != 0) {
+                colorScheme = in.readBundle(getClass().getClassLoader());
+            }
+            featureFlags = in.readBundle(getClass().getClassLoader());
+            if ((presence & PARCEL_HAS_USER_INFO) != 0) {
+                userInfo = new JitsiMeetUserInfo(in);
+            }
+            audioMuted = readBoolean(presence, PARCEL_HAS_AUDIO_MUTED, PARCEL_AUDIO_MUTED);
+            audioOnly = readBoolean(presence, PARCEL_HAS_AUDIO_ONLY, PARCEL_AUDIO_ONLY);
+            videoMuted = readBoolean(presence, PARCEL_HAS_VIDEO_MUTED, PARCEL_VIDEO_MUTED);
+        } else {
+            throw new BadParcelableException(
+                "Unsupported JitsiMeetConferenceOptions parcel version: " + (header & 0xFF));
+        }
+
+        freeze();
+    }
+
+    /**
+     * Reads the format written before the parcel format was versioned.
+     */
+    private void readLegacyParcel(Parcel in) {
         serverURL = (URL) in.readSerializable();
         room = in.readString();
         subject = in.readString();
@@ -325,18 +409,50 @@ public class JitsiMeetConferenceOptions implements Parcelable {
         videoMuted = tmpVideoMuted == 0 ? null : tmpVideoMuted == 1;
     }
 
+    private static Boolean readBoolean(int presence, int hasBit, int valueBit) {
+        return (presence & hasBit) == 0 ? null : (presence & valueBit) != 0;
+    }
+
+    private static int writeBoolean(Boolean value, int hasBit, int valueBit) {
+        return value == null ? 0 : value ? hasBit | valueBit : hasBit;
+    }
+
+    /**
+     * Gets these options as React Native props.
+     *
+     * NOTE: The returned {@link Bundle} is shared by all callers and MUST NOT
+     * be modified.
+     *
+     * @return a {@link Bundle} with the props.
+     */
     Bundle asProps() {
-        Bundle props = new Bundle();
+        return props;
+    }
 
+    /**
+     * Applies the defaults to and computes the props of these options. Called
+     * once, when the options are built or unparceled, so the (large) config
+     * isn't processed again on every join.
+     */
+    private void freeze() {
         // Android always has the PiP flag set by default.
+        if (featureFlags == null) {
+            featureFlags = new Bundle();
+        }
         if (!featureFlags.containsKey("pip.enabled")) {
             featureFlags.putBoolean("pip.enabled", true);
         }
 
-        props.putBundle("flags", featureFlags);
+        props = computeProps();
+    }
+
+    private Bundle computeProps() {
+        Bundle props = new Bundle();
+
+        props.putBundle("flags", new Bundle(featureFlags));
 
         if (colorScheme != null) {
-            props.putBundle("colorScheme", colorScheme);
+            props.putBundle("colorScheme", new Bundle(colorScheme));
         }
 
         Bundle config = new Bundle();
@@ -374,6 +490,13 @@ public class JitsiMeetConferenceOptions implements Parcelable {
 
         if (configJsonString != null) {
             props.putString("configJsonString", configJsonString);
+
+            // Lets JavaScript reuse the config it parsed already.
+            String configHash = Hashing.sha256(configJsonString);
+
+            if (configHash != null) {
+                props.putString("configHash", configHash);
+            }
         }
 
         if (userInfo != null) {
@@ -403,17 +526,33 @@ public class JitsiMeetConferenceOptions implements Parcelable {
 
     @Override
     public void writeToParcel(Parcel dest, int flags) {
-        dest.writeSerializable(serverURL);
+        // Layout (version 1): header, presence flags, then the fields. The
+        // server URL, color scheme and user info are only written when
+        // present, the nullable Booleans are fully encoded in the flags.
+        int presence
+            = (serverURL != null ? PARCEL_HAS_SERVER_URL : 0)
+                | (colorScheme != null ? PARCEL_HAS_COLOR_SCHEME : 0)
+                | (userInfo != null ? PARCEL_HAS_USER_INFO : 0)
+                | writeBoolean(audioMuted, PARCEL_HAS_AUDIO_MUTED, PARCEL_AUDIO_MUTED)
+                | writeBoolean(audioOnly, PARCEL_HAS_AUDIO_ONLY, PARCEL_AUDIO_ONLY)
+                | writeBoolean(videoMuted, PARCEL_HAS_VIDEO_MUTED, PARCEL_VIDEO_MUTED);
+
+        dest.writeInt(PARCEL_MAGIC | PARCEL_VERSION);
+        dest.writeInt(presence);
+        if (serverURL != null) {
+            dest.writeString(serverURL.toString());
+        }
         dest.writeString(room);
         dest.writeString(subject);
         dest.writeString(token);
         dest.writeString(configJsonString);
-        dest.writeBundle(colorScheme);
+        if (colorScheme != null) {
+            dest.writeBundle(colorScheme);
+        }
         dest.writeBundle(featureFlags);
-        dest.writeBundle(userInfo != null ? userInfo.asBundle() : new Bundle());
-        dest.writeByte((byte) (audioMuted == null ? 0 : audioMuted ? 1 : 2));
-        dest.writeByte((byte) (audioOnly == null ? 0 : audioOnly ? 1 : 2));
-        dest.writeByte((byte) (videoMuted == null ? 0 : videoMuted ? 1 : 2));
+        if (userInfo != null) {
+            userInfo.writeToParcel(dest);
+        }
     }
 
     @Override
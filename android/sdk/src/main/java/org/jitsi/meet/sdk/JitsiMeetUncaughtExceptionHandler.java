@@ -38,6 +38,7 @@ class JitsiMeetUncaughtExceptionHandler implements Thread.UncaughtExceptionHandl
     @Override
     public void uncaughtException(Thread t, Throwable e) {
         JitsiMeetLogger.e(e, this.getClass().getSimpleName() + " FATAL ERROR");
+        JitsiMeetLogger.flush();
 
         // Abort all ConnectionService ongoing calls
         if (AudioModeModule.useConnectionService()) {
@@ -17,6 +17,7 @@
 package org.jitsi.meet.sdk;
 
 import android.os.Bundle;
+import android.os.Parcel;
 
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -81,6 +82,27 @@ public class JitsiMeetUserInfo {
         }
     }
 
+    /**
+     * Reads a {@code JitsiMeetUserInfo} written by
+     * {@link #writeToParcel(Parcel)}.
+     */
+    JitsiMeetUserInfo(Parcel in) {
+        displayName = in.readString();
+        email = in.readString();
+
+        String avatarURL = in.readString();
+
+        if (avatarURL != null) {
+            try {
+                avatar = new URL(avatarURL);
+            } catch (MalformedURLException e) {
+            }
+        }
+
+        userId = in.readString();
+        password = in.readString();
+    }
+
     public String getDisplayName() {
         return displayName;
     }
@@ -146,4 +168,16 @@ public class JitsiMeetUserInfo {
 
         return b;
     }
+
+    /**
+     * Writes the fields to a {@link Parcel} directly, without going through a
+     * {@link Bundle}. Used by {@link JitsiMeetConferenceOptions}.
+     */
+    void writeToParcel(Parcel dest) {
+        dest.writeString(displayName);
+        dest.writeString(email);
+        dest.writeString(avatar != null ? avatar.toString() : null);
+        dest.writeString(userId);
+        dest.writeString(password);
+    }
 }
@@ -21,25 +21,112 @@ import android.os.Bundle;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableMap;
 
 import org.jitsi.meet.sdk.log.JitsiMeetLogger;
 import org.jitsi.meet.sdk.XmppBridge;
 import org.jitsi.meet.sdk.VideoConfBridge;
 
-import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 
 public class JitsiMeetView extends BaseReactView<JitsiMeetViewListener>
         implements OngoingConferenceTracker.OngoingConferenceListener {
 
     /**
-     * The {@code Method}s of {@code JitsiMeetViewListener} by event name i.e.
+     * Calls the methods of {@code JitsiMeetViewListener} by event name i.e.
      * redux action types.
      */
-    private static final Map<String, Method> LISTENER_METHODS
-        = ListenerUtils.mapListenerMethods(JitsiMeetViewListener.class);
+    private static final ListenerUtils.ListenerDispatcher<JitsiMeetViewListener> LISTENER_DISPATCHER
+        = new ListenerUtils.ListenerDispatcher<JitsiMeetViewListener>(
+                JitsiMeetViewListener.class, JitsiMeetViewAdapter.class) {
+            @Override
+            protected void dispatch(
+                    JitsiMeetViewListener listener,
+                    String eventName,
+                    Map<String, Object> data) {
+                switch (eventName) {
+                    case "CONFERENCE_JOINED":
+                        listener.onConferenceJoined(data);
+                        break;
+                    case "CONFERENCE_TERMINATED":
+                        listener.onConferenceTerminated(data);
+                        break;
+                    case "CONFERENCE_WILL_JOIN":
+                        listener.onConferenceWillJoin(data);
+                        break;
+                    case "XMPP_RESULT":
+                        listener.onXmppResult(data);
+                        break;
+                    case "SPEAKER_FRAME_VIDEO_TRACK_CHANGE":
+                        listener.onSpeakerFrameVideoTrackChange(data);
+                        break;
+                    case "COMMAND_VALUE":
+                        listener.onCommandValue(data);
+                        break;
+                    case "SWIPE_EVENT":
+                        listener.onSwipeEvent(data);
+                        break;
+                    case "LOCAL_STATS_EVENT":
+                        listener.onLocalStatsEvent(data);
+                        break;
+                    case "LOCAL_STATS_SUMMARY":
+                        listener.onLocalStatsSummary(data);
+                        break;
+                    case "CONNECTION_QUALITY_CHANGED":
+                        listener.onConnectionQualityChanged(data);
+                        break;
+                    case "SHOP_BUTTON_EVENT":
+                        listener.onShopButtonEvent(data);
+                        break;
+                    case "TRACK_ADDED":
+                        listener.onTrackAdded(data);
+                        break;
+                    case "PARTICIPANT_JOINED":
+                        listener.onParticipantJoined(data);
+                        break;
+                    case "PARTICIPANT_LEFT":
+                        listener.onParticipantLeft(data);
+                        break;
+                    case "UNDEFINED_JITSI_ERROR":
+                        listener.onUndefinedJitsiError(data);
+                        break;
+                }
+            }
+        };
+
+    /**
+     * Event sent to JavaScript with the props which changed without requiring
+     * the {@code App} to be re-rendered.
+     */
+    private static final String PROPS_UPDATE = "org.jitsi.meet:features/app#props-update";
+
+    /**
+     * The props which can be updated in place, i.e. whose change doesn't mean
+     * a new conference. A change of any other prop re-renders the {@code App}
+     * through {@link #createReactRootView(String, Bundle)}.
+     */
+    private static final Set<String> UPDATABLE_PROPS
+        = new HashSet<>(Arrays.asList("colorScheme", "flags"));
+
+    /**
+     * The props last applied to the React Native view, without the
+     * {@code timestamp}. Only accessed on the UI thread.
+     */
+    @Nullable
+    private Bundle appliedProps;
+
+    /**
+     * Whether {@link #appliedProps} still describe the current state of the
+     * {@code App}. When they don't, the same props must be applied again with
+     * a full re-render.
+     */
+    private final AppliedPropsState appliedPropsState = new AppliedPropsState();
 
     /**
      * The URL of the current conference.
@@ -48,47 +135,59 @@ public class JitsiMeetView extends BaseReactView<JitsiMeetViewListener>
     // fine to have this field volatile without additional synchronization.
     private volatile String url;
 
+    /**
+     * Aggregates the local connectivity statistics of the current conference.
+     */
+    private final LocalStatsAggregator localStats = new LocalStatsAggregator();
+
+    /**
+     * The participants of the current conference.
+     */
+    private final ParticipantRoster participantRoster = new ParticipantRoster();
+
     /**
      * Helper method to recursively merge 2 {@link Bundle} objects representing React Native props.
      *
+     * Values of {@code b} override the ones of {@code a}, except for
+     * {@link Bundle}s present in both, which are merged. Values of any type
+     * supported by {@link Bundle} are carried over as they are, and subtrees
+     * which don't need merging are shared rather than copied.
+     *
      * @param a - The first {@link Bundle}.
      * @param b - The second {@link Bundle}.
      * @return The merged {@link Bundle} object.
      */
     private static Bundle mergeProps(@Nullable Bundle a, @Nullable Bundle b) {
-        Bundle result = new Bundle();
-
-        if (a == null) {
-            if (b != null) {
-                result.putAll(b);
-            }
+        Bundle result = a == null ? new Bundle() : new Bundle(a);
 
+        if (b == null) {
             return result;
         }
 
-        if (b == null) {
-            result.putAll(a);
+        result.putAll(b);
 
+        if (a == null || a.isEmpty()) {
             return result;
         }
 
-        // Start by putting all of a in the result.
-        result.putAll(a);
-
-        // Iterate over each key in b and override if appropriate.
+        // Merge the Bundles present on both sides. Everything else in b has
+        // already overridden a.
         for (String key : b.keySet()) {
             Object bValue = b.get(key);
-            Object aValue = a.get(key);
-            String valueType = bValue.getClass().getSimpleName();
-
-            if (valueType.contentEquals("Boolean")) {
-                result.putBoolean(key, (Boolean)bValue);
-            } else if (valueType.contentEquals("String")) {
-                result.putString(key, (String)bValue);
-            } else if (valueType.contentEquals("Bundle")) {
-                result.putBundle(key, mergeProps((Bundle)aValue, (Bundle)bValue));
-            } else {
-                throw new RuntimeException("Unsupported type: " + valueType);
+
+            if (bValue instanceof Bundle) {
+                Object aValue = a.get(key);
+
+                if (aValue instanceof Bundle) {
+                    Bundle aBundle = (Bundle) aValue;
+                    Bundle bBundle = (Bundle) bValue;
+
+                    if (bBundle.isEmpty()) {
+                        result.putBundle(key, aBundle);
+                    } else if (!aBundle.isEmpty()) {
+                        result.putBundle(key, mergeProps(aBundle, bBundle));
+                    }
+                }
             }
         }
 
@@ -110,6 +209,8 @@ public class JitsiMeetView extends BaseReactView<JitsiMeetViewListener>
     @Override
     public void dispose() {
         OngoingConferenceTracker.getInstance().removeListener(this);
+        appliedProps = null;
+        appliedPropsState.invalidate();
         super.dispose();
     }
 
@@ -159,6 +260,7 @@ public class JitsiMeetView extends BaseReactView<JitsiMeetViewListener>
      * Leaves the currently active conference, tears down the established Xmpp Connection.
      */
     public void leave() {
+        appliedPropsState.invalidate();
         setProps(new Bundle());
     }
 
@@ -280,6 +382,33 @@ public class JitsiMeetView extends BaseReactView<JitsiMeetViewListener>
         VideoConfBridge.muteVideoConferenceAudio(mute);
     }
 
+    /**
+     * Gets the participants of the current conference, kept up to date
+     * natively. The roster is updated before the listener is notified with
+     * {@code onParticipantJoined} / {@code onParticipantLeft}.
+     *
+     * @return The {@link ParticipantRoster} of this view.
+     */
+    public ParticipantRoster getParticipantRoster() {
+        return participantRoster;
+    }
+
+    /**
+     * Summarizes the local connectivity statistics of the current (or last)
+     * conference over a time window, e.g. to poll them instead of listening
+     * to every {@code onLocalStatsEvent}. At least the last 10 minutes of
+     * statistics are kept, sampled at most every 5 seconds. Can be called from any thread.
+     *
+     * @param windowSeconds - The length of the window, ending now.
+     * @return Map with the 'windowSeconds', the number of 'samples' and, per
+     * metric with values ('connectionQuality', 'bitrateDownload',
+     * 'bitrateUpload', 'packetLossDownload', 'packetLossUpload', 'rtt'), a Map
+     * with its 'count', 'mean', 'min', 'max', 'p50', 'p90' and 'p95'.
+     */
+    public Map<String, Object> getLocalStatsSummary(int windowSeconds) {
+        return localStats.summarize(windowSeconds * 1000L, System.currentTimeMillis());
+    }
+
     /**
      * Helper method to set the React Native props.
      * @param newProps - New props to be set on the React Native view.
@@ -288,6 +417,27 @@ public class JitsiMeetView extends BaseReactView<JitsiMeetViewListener>
         // Merge the default options with the newly provided ones.
         Bundle props = mergeProps(JitsiMeet.getDefaultProps(), newProps);
 
+        if (appliedProps != null && appliedPropsState.isLive()) {
+            Bundle changedProps = diffProps(appliedProps, props);
+
+            if (changedProps == null) {
+                // Same conference, nothing to do.
+                return;
+            }
+            if (UPDATABLE_PROPS.containsAll(changedProps.keySet())) {
+                appliedProps = props;
+                emitPropsUpdate(changedProps);
+
+                return;
+            }
+        }
+
+        appliedProps = props;
+        appliedPropsState.onApplied(hasRoom(props));
+
+        // Copy so the timestamp doesn't end up in appliedProps.
+        props = new Bundle(props);
+
         // XXX The setProps() method is supposed to be imperative i.e.
         // a second invocation with one and the same URL is expected to join
         // the respective conference again if the first invocation was followed
@@ -302,6 +452,92 @@ public class JitsiMeetView extends BaseReactView<JitsiMeetViewListener>
         createReactRootView("App", props);
     }
 
+    /**
+     * Checks whether props name a room to join, as opposed to only a server to
+     * connect to.
+     */
+    private static boolean hasRoom(@NonNull Bundle props) {
+        Bundle urlProps = props.getBundle("url");
+
+        return urlProps != null
+            && (urlProps.getString("room") != null || urlProps.getString("url") != null);
+    }
+
+    /**
+     * Computes the top-level props which differ between two sets of props.
+     *
+     * @param oldProps - The props currently applied.
+     * @param newProps - The props to be applied.
+     * @return A {@link Bundle} with the values in {@code newProps} of the keys
+     * which changed (removed keys map to {@code null}), or {@code null} if
+     * nothing changed.
+     */
+    @Nullable
+    private static Bundle diffProps(@NonNull Bundle oldProps, @NonNull Bundle newProps) {
+        Bundle result = new Bundle(newProps);
+
+        for (String key : newProps.keySet()) {
+            if (oldProps.containsKey(key)
+                    && propEquals(oldProps.get(key), newProps.get(key))) {
+                result.remove(key);
+            }
+        }
+        for (String key : oldProps.keySet()) {
+            if (!newProps.containsKey(key)) {
+                result.putString(key, null);
+            }
+        }
+
+        return result.isEmpty() ? null : result;
+    }
+
+    /**
+     * Compares two prop values structurally, {@link Bundle}s and arrays
+     * included.
+     */
+    private static boolean propEquals(@Nullable Object a, @Nullable Object b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null) {
+            return false;
+        }
+        if (a instanceof Bundle && b instanceof Bundle) {
+            Bundle aBundle = (Bundle) a;
+            Bundle bBundle = (Bundle) b;
+
+            if (aBundle.size() != bBundle.size()) {
+                return false;
+            }
+            for (String key : aBundle.keySet()) {
+                if (!bBundle.containsKey(key)
+                        || !propEquals(aBundle.get(key), bBundle.get(key))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        // Handles (primitive) arrays as well.
+        return Arrays.deepEquals(new Object[] { a }, new Object[] { b });
+    }
+
+    /**
+     * Sends props which changed to JavaScript, to be applied without
+     * re-rendering the {@code App}.
+     *
+     * @param changedProps - The props which changed.
+     */
+    private void emitPropsUpdate(Bundle changedProps) {
+        WritableMap data = Arguments.createMap();
+
+        data.putString("externalAPIScope", externalAPIScope);
+        data.putMap("props", Arguments.fromBundle(changedProps));
+
+        ReactInstanceManagerHolder.emitEvent(PROPS_UPDATE, data);
+    }
+
     /**
      * Handler for {@link OngoingConferenceTracker} events.
      * @param conferenceUrl
@@ -325,7 +561,32 @@ public class JitsiMeetView extends BaseReactView<JitsiMeetViewListener>
      */
     @Override
     protected void onExternalAPIEvent(String name, ReadableMap data) {
-        onExternalAPIEvent(LISTENER_METHODS, name, data);
+        appliedPropsState.onExternalAPIEvent(name, data);
+        participantRoster.onExternalAPIEvent(name, data);
+
+        switch (name) {
+            case "CONFERENCE_JOINED":
+                localStats.reset();
+                break;
+            case "LOCAL_STATS_SAMPLE": {
+                // Not delivered to the listeners one by one, only the periodic
+                // summaries are.
+                long now = System.currentTimeMillis();
+
+                if (localStats.add(data, now)) {
+                    onExternalAPIEvent(
+                        LISTENER_DISPATCHER,
+                        "LOCAL_STATS_SUMMARY",
+                        Arguments.makeNativeMap(
+                            localStats.summarize(
+                                LocalStatsAggregator.SUMMARY_INTERVAL_MS,
+                                now)));
+                }
+                return;
+            }
+        }
+
+        onExternalAPIEvent(LISTENER_DISPATCHER, name, data);
     }
 
     @Override
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2020. cabi LLC. All rights reserved.
+ */
+
+package org.jitsi.meet.sdk;
+
+import java.util.Map;
+
+/**
+ * Implements all methods required by {@link JitsiMeetViewListener} but does
+ * nothing. Mimics {@code android.animation.AnimatorListenerAdapter} and, thus,
+ * allows simpler implementations of {@code JitsiMeetViewListener} which only
+ * override the methods they are interested in. Events whose methods are not
+ * overridden are not delivered at all, so their data is never converted.
+ */
+public abstract class JitsiMeetViewAdapter implements JitsiMeetViewListener {
+    @Override
+    public void onConferenceJoined(Map<String, Object> data) {
+    }
+
+    @Override
+    public void onConferenceTerminated(Map<String, Object> data) {
+    }
+
+    @Override
+    public void onConferenceWillJoin(Map<String, Object> data) {
+    }
+
+    @Override
+    public void onXmppResult(Map<String, Object> data) {
+    }
+
+    @Override
+    public void onSpeakerFrameVideoTrackChange(Map<String, Object> data) {
+    }
+
+    @Override
+    public void onCommandValue(Map<String, Object> data) {
+    }
+
+    @Override
+    public void onSwipeEvent(Map<String, Object> data) {
+    }
+
+    @Override
+    public void onLocalStatsEvent(Map<String, Object> data) {
+    }
+
+    @Override
+    public void onLocalStatsSummary(Map<String, Object> data) {
+    }
+
+    @Override
+    public void onConnectionQualityChanged(Map<String, Object> data) {
+    }
+
+    @Override
+    public void onShopButtonEvent(Map<String, Object> data) {
+    }
+
+    @Override
+    public void onTrackAdded(Map<String, Object> data) {
+    }
+
+    @Override
+    public void onParticipantJoined(Map<String, Object> data) {
+    }
+
+    @Override
+    public void onParticipantLeft(Map<String, Object> data) {
+    }
+
+    @Override
+    public void onUndefinedJitsiError(Map<String, Object> data) {
+    }
+}
@@ -20,12 +20,18 @@ import java.util.Map;
 
 /**
  * Interface for listening to events coming from Jitsi Meet.
+ *
+ * The event data maps are read-only and keep the JavaScript types of the
+ * values: {@link Boolean}, {@link Double} (for all numbers), {@link String},
+ * {@link Map} (for objects) and {@link java.util.List} (for arrays).
  */
 public interface JitsiMeetViewListener {
     /**
      * Called when a conference was joined.
      *
-     * @param data Map with a "url" key with the conference URL.
+     * @param data Map with a "url" key with the conference URL, a "userId" key
+     * with the id of the local participant and a "displayName" key with its
+     * display name, if any.
      */
     void onConferenceJoined(Map<String, Object> data);
 
@@ -52,7 +58,9 @@ public interface JitsiMeetViewListener {
      * Called whenever an Xmpp method returns a response that needs to be passed to parent app.
      *
      * @param data Map with a "type" key stating the event type
-     * and a "value" key carrying event specific data.
+     * and a "value" key carrying event specific data. The end of the
+     * connection is told by the "xmpp_connection_failed" and
+     * "xmpp_connection_disconnected" types.
      */
     void onXmppResult(Map<String, Object> data);
 
@@ -78,10 +86,35 @@ public interface JitsiMeetViewListener {
 
     /**
      * Called whenever local connectivity stats is updated.
-     * @param stats string
+     * @param data Map with a 'stats' key with the local connection quality
+     * (percentage, as a {@link Double}). It used to be a {@link String}: host
+     * apps reading it with a cast to {@code String} must cast to
+     * {@link Number} instead.
      */
     void onLocalStatsEvent(Map<String, Object> data);
 
+    /**
+     * Called every minute during a conference with a summary of the local
+     * connectivity statistics of the last minute. The same summary, over any
+     * window, can be pulled with {@link JitsiMeetView#getLocalStatsSummary}.
+     * @param data Map with the 'windowSeconds', the number of 'samples' and,
+     * per metric with values ('connectionQuality', 'bitrateDownload',
+     * 'bitrateUpload', 'packetLossDownload', 'packetLossUpload', 'rtt'), a Map
+     * with its 'count', 'mean', 'min', 'max', 'p50', 'p90' and 'p95'.
+     */
+    void onLocalStatsSummary(Map<String, Object> data);
+
+    /**
+     * Called whenever the connection quality estimated by the SDK changes
+     * significantly.
+     * @param data Map with a 'score' key with the estimated quality (0 to 100,
+     * as a {@link Double}), a 'profile' key with the suggested send profile
+     * ("audio-only", "low", "medium" or "high") and a 'transport' key with the
+     * transport of the network ("wifi", "cellular", "ethernet", "other" or
+     * "none").
+     */
+    void onConnectionQualityChanged(Map<String, Object> data);
+
     /**
      * Called whenever wrap up buttons are pressed.
      * @param data Map with 'navigationTarget' page to display in app.
@@ -94,14 +127,19 @@ public interface JitsiMeetViewListener {
     void onTrackAdded(Map<String, Object> data);
 
     /**
-     * Called whenever new participant joins to video conference.
-     * @param data Map with 'userID' value.
+     * Called whenever new participant joins to video conference. The
+     * participant is in {@link JitsiMeetView#getParticipantRoster()} already.
+     * @param data Map with 'userId', 'local' and 'displayName' values and a
+     * 'data' JSON string with the 'userId' and the 'remoteDescriptions'.
      */
     void onParticipantJoined(Map<String, Object> data);
 
      /**
-     * Called whenever new participant leaves to video conference.
-     * @param data Map with 'userID' value.
+     * Called whenever new participant leaves to video conference. The
+     * participant is out of {@link JitsiMeetView#getParticipantRoster()}
+     * already.
+     * @param data Map with a 'userId' value and a 'data' JSON string with the
+     * 'userId' and the 'remoteDescriptions'.
      */
     void onParticipantLeft(Map<String, Object> data);
 
@@ -0,0 +1,263 @@
+/*
+ * Copyright © 2020. cabi LLC. All rights reserved.
+ */
+
+package org.jitsi.meet.sdk;
+
+import com.facebook.react.bridge.UiThreadUtil;
+
+import org.jitsi.meet.sdk.log.JitsiMeetLogger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The thread the methods of a listener set on a {@link BaseReactView} are
+ * called on. See {@link BaseReactView#setListenerDelivery}.
+ * <ul>
+ * <li>{@link #UI_THREAD}, the default: the listeners may touch views;</li>
+ * <li>{@link #CALLER_THREAD}: whatever thread emits the event, with no hop at
+ * all. That's the native modules thread for the events coming from
+ * JavaScript, but the SDK's own threads for the events it emits natively
+ * (e.g. {@code CONNECTION_QUALITY_CHANGED}). The listener must return quickly
+ * and be thread-safe, it holds up the events which follow;</li>
+ * <li>{@link #serialExecutor}: a dedicated thread, in order, e.g. for
+ * listeners which forward the events to storage or to the network.</li>
+ * </ul>
+ */
+public abstract class ListenerDelivery {
+    /**
+     * Calls the listener methods on the UI thread, right away if the events
+     * arrive on it.
+     */
+    public static final ListenerDelivery UI_THREAD = new ListenerDelivery() {
+        @Override
+        void deliver(Runnable runnable) {
+            if (UiThreadUtil.isOnUiThread()) {
+                runnable.run();
+            } else {
+                UiThreadUtil.runOnUiThread(runnable);
+            }
+        }
+    };
+
+    /**
+     * Calls the listener methods on the thread which emits the events.
+     */
+    public static final ListenerDelivery CALLER_THREAD = new ListenerDelivery() {
+        @Override
+        void deliver(Runnable runnable) {
+            runnable.run();
+        }
+    };
+
+    /**
+     * Creates a policy calling the listener methods in order on a dedicated
+     * thread, with a bounded queue.
+     *
+     * @param threadName - The name of the thread.
+     * @param capacity - The maximum number of events waiting to be delivered.
+     * @param dropWhenFull - What to do with an event arriving when the queue
+     * is full: drop it if {@code true}; otherwise, block the thread which
+     * emits the event (e.g. the native modules thread) until there's room.
+     * @return The policy. Its thread runs until {@link SerialExecutor#shutdown()}
+     * is called. The thread is never interrupted, the listener methods may
+     * block or do interruptible I/O.
+     */
+    public static SerialExecutor serialExecutor(
+            String threadName,
+            int capacity,
+            boolean dropWhenFull) {
+        return new SerialExecutor(threadName, capacity, dropWhenFull);
+    }
+
+    /**
+     * Only the policies defined here are supported.
+     */
+    ListenerDelivery() {
+    }
+
+    /**
+     * Runs the call of a listener method according to this policy.
+     */
+    abstract void deliver(Runnable runnable);
+
+    /**
+     * Calls the listener methods in order on a dedicated thread. Keeps metrics
+     * about the backpressure, see {@link #getMetrics()}.
+     */
+    public static final class SerialExecutor extends ListenerDelivery {
+        private static final String TAG = SerialExecutor.class.getSimpleName();
+
+        /**
+         * Queued by {@link #shutdown()} to wake the thread up.
+         */
+        private static final Task SHUTDOWN = new Task(null);
+
+        private final BlockingQueue<Task> queue;
+
+        private final boolean dropWhenFull;
+
+        private volatile boolean shutdown;
+
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong blocked = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong maxQueued = new AtomicLong();
+        private final AtomicLong totalQueueNanos = new AtomicLong();
+        private final AtomicLong maxQueueNanos = new AtomicLong();
+
+        SerialExecutor(String threadName, int capacity, boolean dropWhenFull) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.dropWhenFull = dropWhenFull;
+
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    consume();
+                }
+            }, threadName);
+
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        void deliver(Runnable runnable) {
+            submitted.incrementAndGet();
+            if (shutdown) {
+                dropped.incrementAndGet();
+                return;
+            }
+
+            Task task = new Task(runnable);
+
+            if (!queue.offer(task)) {
+                if (dropWhenFull) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+
+                blocked.incrementAndGet();
+                try {
+                    queue.put(task);
+                } catch (InterruptedException e) {
+                    dropped.incrementAndGet();
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+
+            // The thread may have stopped since shutdown was checked. If it
+            // did, the event would stay in the queue forever.
+            if (shutdown && queue.remove(task)) {
+                dropped.incrementAndGet();
+                return;
+            }
+
+            updateMax(maxQueued, queue.size());
+        }
+
+        private void consume() {
+            while (!shutdown || !queue.isEmpty()) {
+                Task task;
+
+                try {
+                    task = queue.take();
+                } catch (InterruptedException e) {
+                    continue;
+                }
+
+                if (task == SHUTDOWN) {
+                    continue;
+                }
+
+                long queueNanos = System.nanoTime() - task.enqueuedNanos;
+
+                totalQueueNanos.addAndGet(queueNanos);
+                updateMax(maxQueueNanos, queueNanos);
+
+                try {
+                    task.runnable.run();
+                } catch (Throwable tr) {
+                    // A failing listener must not stop the delivery of the
+                    // events which follow.
+                    failures.incrementAndGet();
+                    JitsiMeetLogger.e(tr, TAG + " Listener method failed");
+                }
+                delivered.incrementAndGet();
+            }
+        }
+
+        private static void updateMax(AtomicLong max, long value) {
+            long current;
+
+            do {
+                current = max.get();
+            } while (value > current && !max.compareAndSet(current, value));
+        }
+
+        /**
+         * Gets a snapshot of the metrics of this policy: the number of events
+         * {@code submitted}, {@code delivered}, {@code dropped} (queue full or
+         * shut down), {@code blocked} (the events thread waited for room) and
+         * whose delivery threw ({@code failures}), the number of events
+         * {@code queued} now and at most ({@code maxQueued}), and the time
+         * events waited in the queue ({@code avgQueueMs}, {@code maxQueueMs}).
+         *
+         * @return The metrics, by name.
+         */
+        public Map<String, Long> getMetrics() {
+            Map<String, Long> metrics = new HashMap<>();
+            long delivered = this.delivered.get();
+
+            metrics.put("submitted", submitted.get());
+            metrics.put("delivered", delivered);
+            metrics.put("dropped", dropped.get());
+            metrics.put("blocked", blocked.get());
+            metrics.put("failures", failures.get());
+            metrics.put("queued", (long) queue.size());
+            metrics.put("maxQueued", maxQueued.get());
+            metrics.put(
+                "avgQueueMs",
+                delivered == 0 ? 0 : totalQueueNanos.get() / delivered / 1000000);
+            metrics.put("maxQueueMs", maxQueueNanos.get() / 1000000);
+
+            return metrics;
+        }
+
+        /**
+         * Stops the thread once the queued events are delivered. Events
+         * arriving afterwards are dropped. Doesn't wait for the thread.
+         */
+        public void shutdown() {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+
+            // Wakes the thread up if it waits for events. If the queue is
+            // full, the thread isn't waiting and stops once it's drained.
+            queue.offer(SHUTDOWN);
+
+            JitsiMeetLogger.d(TAG + " Shut down, metrics: " + getMetrics());
+        }
+
+        /**
+         * A queued call of a listener method.
+         */
+        private static class Task {
+            final Runnable runnable;
+            final long enqueuedNanos = System.nanoTime();
+
+            Task(Runnable runnable) {
+                this.runnable = runnable;
+            }
+        }
+    }
+}
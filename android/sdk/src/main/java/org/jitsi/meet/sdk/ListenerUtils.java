@@ -16,16 +16,19 @@
 
 package org.jitsi.meet.sdk;
 
+import androidx.annotation.Nullable;
+
 import com.facebook.react.bridge.ReadableMap;
-import com.facebook.react.bridge.ReadableMapKeySetIterator;
-import com.facebook.react.bridge.UiThreadUtil;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -97,38 +100,112 @@ public final class ListenerUtils {
      * @param eventName - Name of the event.
      * @param eventData - Data associated with the event.
      */
+    public static void runListenerMethod(
+            Object listener,
+            Map<String, Method> listenerMethods,
+            String eventName,
+            ReadableMap eventData) {
+        // Make sure listener methods are invoked on the UI thread. It
+        // was requested by SDK consumers.
+        runListenerMethod(
+            listener, listenerMethods, eventName, eventData,
+            ListenerDelivery.UI_THREAD);
+    }
+
+    /**
+     * Executes the right listener method for the given event, on the thread
+     * of the given {@link ListenerDelivery}.
+     *
+     * @param listener - The listener on which the method will be called.
+     * @param listenerMethods - Mapping with event names and the matching
+     *                        methods.
+     * @param eventName - Name of the event.
+     * @param eventData - Data associated with the event.
+     * @param delivery - The thread to call the method on.
+     */
     public static void runListenerMethod(
             final Object listener,
             final Map<String, Method> listenerMethods,
             final String eventName,
-            final ReadableMap eventData) {
+            final ReadableMap eventData,
+            ListenerDelivery delivery) {
+        delivery.deliver(new Runnable() {
+            @Override
+            public void run() {
+                invokeListenerMethod(
+                    listener, listenerMethods, eventName, eventData);
+            }
+        });
+    }
+
+    /**
+     * Executes the right listener method for the given event, using the given
+     * {@link ListenerDispatcher} instead of reflection. Nothing is done (and
+     * the event data is not converted) if the listener doesn't override the
+     * method of the event.
+     * NOTE: This function will run asynchronously on the UI thread.
+     *
+     * @param listener - The listener on which the method will be called.
+     * @param dispatcher - The dispatcher for the listener's type.
+     * @param eventName - Name of the event.
+     * @param eventData - Data associated with the event.
+     */
+    public static <ListenerT> void runListenerMethod(
+            ListenerT listener,
+            ListenerDispatcher<ListenerT> dispatcher,
+            String eventName,
+            ReadableMap eventData) {
         // Make sure listener methods are invoked on the UI thread. It
         // was requested by SDK consumers.
-        if (UiThreadUtil.isOnUiThread()) {
-            runListenerMethodOnUiThread(
-                listener, listenerMethods, eventName, eventData);
-        } else {
-            UiThreadUtil.runOnUiThread(new Runnable() {
-                @Override
-                public void run() {
-                    runListenerMethodOnUiThread(
-                        listener, listenerMethods, eventName, eventData);
-                }
-            });
+        runListenerMethod(
+            listener, dispatcher, eventName, eventData,
+            ListenerDelivery.UI_THREAD);
+    }
+
+    /**
+     * Executes the right listener method for the given event, using the given
+     * {@link ListenerDispatcher}, on the thread of the given
+     * {@link ListenerDelivery}. Nothing is done (and nothing is queued) if the
+     * listener doesn't override the method of the event.
+     *
+     * @param listener - The listener on which the method will be called.
+     * @param dispatcher - The dispatcher for the listener's type.
+     * @param eventName - Name of the event.
+     * @param eventData - Data associated with the event.
+     * @param delivery - The thread to call the method on.
+     */
+    public static <ListenerT> void runListenerMethod(
+            final ListenerT listener,
+            final ListenerDispatcher<ListenerT> dispatcher,
+            final String eventName,
+            final ReadableMap eventData,
+            ListenerDelivery delivery) {
+        if (!dispatcher.handles(listener, eventName)) {
+            return;
+        }
+
+        if (delivery == ListenerDelivery.CALLER_THREAD) {
+            dispatcher.dispatch(listener, eventName, toMap(eventData));
+            return;
         }
+
+        delivery.deliver(new Runnable() {
+            @Override
+            public void run() {
+                dispatcher.dispatch(listener, eventName, toMap(eventData));
+            }
+        });
     }
 
     /**
      * Helper companion for {@link ListenerUtils#runListenerMethod} which runs
-     * in the UI thread.
+     * on the thread of the {@link ListenerDelivery}.
      */
-    private static void runListenerMethodOnUiThread(
+    private static void invokeListenerMethod(
             Object listener,
             Map<String, Method> listenerMethods,
             String eventName,
             ReadableMap eventData) {
-        UiThreadUtil.assertOnUiThread();
-
         Method method = listenerMethods.get(eventName);
         if (method != null) {
             try {
@@ -152,15 +229,117 @@ public final class ListenerUtils {
      * associations of the specified {@code readableMap}.
      */
     private static HashMap<String, Object> toHashMap(ReadableMap readableMap) {
-        HashMap<String, Object> hashMap = new HashMap<>();
+        return new HashMap<>(toMap(readableMap));
+    }
 
-        for (ReadableMapKeySetIterator i = readableMap.keySetIterator();
-                i.hasNextKey();) {
-            String key = i.nextKey();
+    /**
+     * Wraps a specific {@code ReadableMap} in a read-only {@code Map} which
+     * converts the values lazily, preserving their types. See
+     * {@link ReadableMapView}.
+     *
+     * @param readableMap the {@code ReadableMap} to wrap.
+     * @return a {@code Map} view over the specified {@code readableMap}.
+     */
+    private static Map<String, Object> toMap(ReadableMap readableMap) {
+        return new ReadableMapView(readableMap);
+    }
 
-            hashMap.put(key, readableMap.getString(key));
+    /**
+     * Calls listener methods by event name without reflection. Implementations
+     * map each event name to its listener method, typically with a
+     * {@code switch}.
+     *
+     * Reflection is only used once per listener class, in order to find out
+     * which methods the class overrides, so events which the listener ignores
+     * (i.e. methods inherited from the adapter) are skipped before their data
+     * is converted.
+     *
+     * @param <ListenerT> - The listener type.
+     */
+    public abstract static class ListenerDispatcher<ListenerT> {
+        /**
+         * The {@code Method}s of the listener interface by event name.
+         */
+        private final Map<String, Method> listenerMethods;
+
+        /**
+         * The class providing no-op implementations of the listener methods,
+         * if any.
+         */
+        private final Class<?> adapterClass;
+
+        /**
+         * The names of the events handled by each listener class.
+         */
+        private final Map<Class<?>, Set<String>> handledEvents
+            = new ConcurrentHashMap<>();
+
+        /**
+         * Initializes a new {@code ListenerDispatcher} instance.
+         *
+         * @param listenerInterface - The listener interface.
+         * @param adapterClass - The class implementing the listener interface
+         * with no-op methods, or {@code null} if there's none.
+         */
+        protected ListenerDispatcher(
+                Class<ListenerT> listenerInterface,
+                @Nullable Class<? extends ListenerT> adapterClass) {
+            this.listenerMethods = mapListenerMethods(listenerInterface);
+            this.adapterClass = adapterClass;
         }
 
-        return hashMap;
+        /**
+         * Calls the method of the given listener which handles the given event.
+         * Runs on the thread of the {@link ListenerDelivery} of the listener,
+         * the UI thread by default.
+         *
+         * @param listener - The listener on which the method will be called.
+         * @param eventName - Name of the event.
+         * @param data - Data associated with the event.
+         */
+        protected abstract void dispatch(
+                ListenerT listener,
+                String eventName,
+                Map<String, Object> data);
+
+        /**
+         * Checks whether the given listener overrides the method of the given
+         * event.
+         *
+         * @param listener - The listener.
+         * @param eventName - Name of the event.
+         * @return {@code true} if the event should be dispatched to the
+         * listener; {@code false}, otherwise.
+         */
+        boolean handles(ListenerT listener, String eventName) {
+            Class<?> listenerClass = listener.getClass();
+            Set<String> events = handledEvents.get(listenerClass);
+
+            if (events == null) {
+                events = new HashSet<>();
+
+                for (Map.Entry<String, Method> entry : listenerMethods.entrySet()) {
+                    Method method = entry.getValue();
+
+                    try {
+                        Class<?> declaringClass
+                            = listenerClass
+                                .getMethod(method.getName(), method.getParameterTypes())
+                                .getDeclaringClass();
+
+                        if (!declaringClass.equals(adapterClass)) {
+                            events.add(entry.getKey());
+                        }
+                    } catch (NoSuchMethodException e) {
+                        // The listener class implements the interface, so it
+                        // can't happen.
+                    }
+                }
+
+                handledEvents.put(listenerClass, events);
+            }
+
+            return events.contains(eventName);
+        }
     }
 }
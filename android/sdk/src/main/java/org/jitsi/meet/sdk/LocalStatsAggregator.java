@@ -0,0 +1,208 @@
+/*
+ * Copyright © 2020. cabi LLC. All rights reserved.
+ */
+
+package org.jitsi.meet.sdk;
+
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aggregates the local connectivity statistics samples sent by JS
+ * ({@code LOCAL_STATS_SAMPLE}) so they don't have to be delivered to the
+ * listeners one by one.
+ *
+ * The last {@link #CAPACITY} samples are kept in primitive ring buffers, one
+ * per metric, and are summarized over a time window on demand: count, mean,
+ * min, max and percentiles. The windows being bounded by the capacity, the
+ * percentiles are exact rather than sketched. Missing values (e.g. no RTT yet)
+ * are stored as {@code NaN} and left out.
+ *
+ * Thread-safe, samples are added on the native modules thread and summaries
+ * pulled from any thread.
+ */
+class LocalStatsAggregator {
+    /**
+     * The metrics, i.e. the keys of the samples.
+     */
+    static final String[] METRICS = {
+        "connectionQuality",
+        "bitrateDownload",
+        "bitrateUpload",
+        "packetLossDownload",
+        "packetLossUpload",
+        "rtt"
+    };
+
+    /**
+     * The number of samples kept, i.e. at least 10 minutes of samples, JS
+     * sending at most 1 every 5 seconds.
+     */
+    private static final int CAPACITY = 120;
+
+    /**
+     * The percentiles in the summaries, with their keys.
+     */
+    private static final double[] PERCENTILES = { 0.5, 0.9, 0.95 };
+
+    private static final String[] PERCENTILE_KEYS = { "p50", "p90", "p95" };
+
+    /**
+     * The interval of the summaries produced along the samples, in
+     * milliseconds.
+     */
+    static final long SUMMARY_INTERVAL_MS = 60000;
+
+    private final long[] timestamps = new long[CAPACITY];
+
+    /**
+     * The values, by metric index and position in the ring.
+     */
+    private final double[][] values = new double[METRICS.length][CAPACITY];
+
+    /**
+     * Scratch buffer the values of a window are sorted in.
+     */
+    private final double[] scratch = new double[CAPACITY];
+
+    /**
+     * The position the next sample is written at.
+     */
+    private int next;
+
+    private int size;
+
+    /**
+     * The time the last periodic summary was due, 0 before the first sample.
+     */
+    private long lastSummary;
+
+    /**
+     * Adds a sample.
+     *
+     * @param data - The sample, with a number (or nothing) per metric.
+     * @param now - The time of the sample, in milliseconds.
+     * @return {@code true} if a periodic summary is due, i.e.
+     * {@link #SUMMARY_INTERVAL_MS} passed since the last one (or the first
+     * sample).
+     */
+    synchronized boolean add(ReadableMap data, long now) {
+        timestamps[next] = now;
+        for (int i = 0; i < METRICS.length; i++) {
+            String key = METRICS[i];
+
+            values[i][next]
+                = data != null
+                        && data.hasKey(key)
+                        && data.getType(key) == ReadableType.Number
+                    ? data.getDouble(key)
+                    : Double.NaN;
+        }
+        next = (next + 1) % CAPACITY;
+        size = Math.min(size + 1, CAPACITY);
+
+        if (lastSummary == 0) {
+            lastSummary = now;
+        } else if (now - lastSummary >= SUMMARY_INTERVAL_MS) {
+            lastSummary = now;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Drops the samples, e.g. when a new conference is joined.
+     */
+    synchronized void reset() {
+        next = 0;
+        size = 0;
+        lastSummary = 0;
+    }
+
+    /**
+     * Summarizes the samples of a time window.
+     *
+     * @param windowMs - The length of the window, ending now, in milliseconds.
+     * @param now - The current time, in milliseconds.
+     * @return A map with the {@code windowSeconds}, the number of
+     * {@code samples} and, per metric with values, a map with the
+     * {@code count}, {@code mean}, {@code min}, {@code max}, {@code p50},
+     * {@code p90} and {@code p95}.
+     */
+    synchronized Map<String, Object> summarize(long windowMs, long now) {
+        Map<String, Object> summary = new HashMap<>();
+        long since = now - windowMs;
+        int samples = 0;
+
+        // The samples of the window are the newest ones.
+        while (samples < size
+                && timestamps[index(samples)] >= since) {
+            samples++;
+        }
+
+        summary.put("windowSeconds", (double) (windowMs / 1000));
+        summary.put("samples", (double) samples);
+
+        for (int i = 0; i < METRICS.length; i++) {
+            Map<String, Object> metric = summarize(values[i], samples);
+
+            if (metric != null) {
+                summary.put(METRICS[i], metric);
+            }
+        }
+
+        return summary;
+    }
+
+    /**
+     * Summarizes the values of a metric in the newest samples.
+     *
+     * @return The summary, or {@code null} if none of the samples has a value.
+     */
+    private Map<String, Object> summarize(double[] metricValues, int samples) {
+        int count = 0;
+        double sum = 0;
+
+        for (int i = 0; i < samples; i++) {
+            double value = metricValues[index(i)];
+
+            if (!Double.isNaN(value)) {
+                scratch[count++] = value;
+                sum += value;
+            }
+        }
+
+        if (count == 0) {
+            return null;
+        }
+
+        Arrays.sort(scratch, 0, count);
+
+        Map<String, Object> metric = new HashMap<>();
+
+        metric.put("count", (double) count);
+        metric.put("mean", sum / count);
+        metric.put("min", scratch[0]);
+        metric.put("max", scratch[count - 1]);
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            // Nearest rank.
+            int rank = (int) Math.ceil(PERCENTILES[i] * count);
+
+            metric.put(PERCENTILE_KEYS[i], scratch[Math.max(rank, 1) - 1]);
+        }
+
+        return metric;
+    }
+
+    /**
+     * Gets the position in the ring of the n-th newest sample, from 0.
+     */
+    private int index(int n) {
+        return (next - 1 - n + CAPACITY) % CAPACITY;
+    }
+}
@@ -16,13 +16,25 @@
 
 package org.jitsi.meet.sdk;
 
+import android.util.Log;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.module.annotations.ReactModule;
 
 import org.jitsi.meet.sdk.log.JitsiMeetLogger;
 
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
 import javax.annotation.Nonnull;
 
 /**
@@ -32,6 +44,39 @@ import javax.annotation.Nonnull;
 class LogBridgeModule extends ReactContextBaseJavaModule {
     public static final String NAME = "LogBridge";
 
+    /**
+     * The number of array elements per record in {@link #logBatch}: priority,
+     * tag and message.
+     */
+    private static final int RECORD_SIZE = 3;
+
+    /**
+     * The number of logs per second allowed per tag, on average.
+     */
+    private static final double RATE_PER_SECOND = 50;
+
+    /**
+     * The number of logs allowed per tag in a burst.
+     */
+    private static final double BURST = 100;
+
+    /**
+     * How long JS should hold back the logs of a tag once it gets rate
+     * limited, in milliseconds.
+     */
+    private static final long SUPPRESSION_MS = 1000;
+
+    /**
+     * The maximum number of tags tracked by the rate limiter.
+     */
+    private static final int MAX_TAGS = 256;
+
+    /**
+     * The rate limiting state, by tag. Only accessed on the native modules
+     * thread.
+     */
+    private final Map<String, TokenBucket> buckets = new HashMap<>();
+
     public LogBridgeModule(@Nonnull ReactApplicationContext reactContext) {
         super(reactContext);
     }
@@ -41,6 +86,117 @@ class LogBridgeModule extends ReactContextBaseJavaModule {
         return NAME;
     }
 
+    /**
+     * Logs a batch of JS log lines in one bridge call.
+     *
+     * @param records - The records, flattened: for each record its priority
+     * (see {@link Log}), tag (the logger to rate limit by) and message. The
+     * native logger timestamps them.
+     * @param dropped - The number of records JS dropped since the last batch
+     * because their tag was suppressed, by tag. They're reported along the
+     * ones dropped natively.
+     * @param promise - Resolved with the current {@code minPriority} and the
+     * {@code suppressed} tags (with the time until which they're suppressed),
+     * so JS can stop sending what would be dropped anyway.
+     */
+    @ReactMethod
+    public void logBatch(ReadableArray records, ReadableMap dropped, Promise promise) {
+        long now = System.currentTimeMillis();
+        WritableMap suppressed = Arguments.createMap();
+
+        if (dropped != null) {
+            ReadableMapKeySetIterator tags = dropped.keySetIterator();
+
+            while (tags.hasNextKey()) {
+                String tag = tags.nextKey();
+
+                getBucket(tag, now).dropped += dropped.getInt(tag);
+            }
+        }
+
+        for (int i = 0; i + RECORD_SIZE <= records.size(); i += RECORD_SIZE) {
+            int priority = records.getInt(i);
+
+            if (!JitsiMeetLogger.isLoggable(priority)) {
+                continue;
+            }
+
+            String tag = records.getString(i + 1);
+            String message = records.getString(i + 2);
+
+            // Errors are never rate limited.
+            if (priority < Log.ERROR && !acquire(tag, now)) {
+                suppressed.putDouble(tag, now + SUPPRESSION_MS);
+                continue;
+            }
+
+            JitsiMeetLogger.log(priority, message);
+        }
+
+        WritableMap result = Arguments.createMap();
+
+        result.putInt("minPriority", JitsiMeetLogger.getMinPriority());
+        result.putMap("suppressed", suppressed);
+        promise.resolve(result);
+    }
+
+    /**
+     * Takes a token from the bucket of a specific tag.
+     *
+     * @return {@code false} if the tag is over its rate limit.
+     */
+    private boolean acquire(String tag, long now) {
+        TokenBucket bucket = getBucket(tag, now);
+
+        if (bucket.acquire(now)) {
+            if (bucket.dropped > 0) {
+                JitsiMeetLogger.w("Suppressed %d JS log lines of: %s", bucket.dropped, tag);
+                bucket.dropped = 0;
+            }
+
+            return true;
+        }
+
+        bucket.dropped++;
+
+        return false;
+    }
+
+    /**
+     * Gets the bucket of a specific tag, creating it full if there's none.
+     */
+    private TokenBucket getBucket(String tag, long now) {
+        TokenBucket bucket = buckets.get(tag);
+
+        if (bucket == null) {
+            if (buckets.size() >= MAX_TAGS) {
+                pruneBuckets(now);
+            }
+            bucket = new TokenBucket(now);
+            buckets.put(tag, bucket);
+        }
+
+        return bucket;
+    }
+
+    /**
+     * Forgets the tags which are back to a full bucket, and everything if that
+     * isn't enough.
+     */
+    private void pruneBuckets(long now) {
+        for (Iterator<TokenBucket> i = buckets.values().iterator(); i.hasNext();) {
+            TokenBucket bucket = i.next();
+
+            bucket.refill(now);
+            if (bucket.tokens >= BURST && bucket.dropped == 0) {
+                i.remove();
+            }
+        }
+        if (buckets.size() >= MAX_TAGS) {
+            buckets.clear();
+        }
+    }
+
     @ReactMethod
     public void trace(final String message) {
         JitsiMeetLogger.v(message);
@@ -70,4 +226,36 @@ class LogBridgeModule extends ReactContextBaseJavaModule {
     public void error(final String message) {
         JitsiMeetLogger.e(message);
     }
+
+    /**
+     * Token bucket rate limiting the logs of one tag.
+     */
+    private static class TokenBucket {
+        double tokens = BURST;
+        long lastRefill;
+
+        /**
+         * The number of logs dropped since the last one let through.
+         */
+        int dropped;
+
+        TokenBucket(long now) {
+            lastRefill = now;
+        }
+
+        void refill(long now) {
+            tokens = Math.min(BURST, tokens + (now - lastRefill) * RATE_PER_SECOND / 1000);
+            lastRefill = now;
+        }
+
+        boolean acquire(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens--;
+                return true;
+            }
+
+            return false;
+        }
+    }
 }
@@ -0,0 +1,466 @@
+/*
+ * Copyright © 2020. cabi LLC. All rights reserved.
+ */
+
+package org.jitsi.meet.sdk;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The participants of the conference of a {@link JitsiMeetView}, by id, kept
+ * up to date from the {@code PARTICIPANT_JOINED}, {@code PARTICIPANT_UPDATED}
+ * (display names) and {@code PARTICIPANT_LEFT} events before they reach the
+ * listener. The local participant is added with {@code CONFERENCE_JOINED}.
+ * Host apps can share one roster across screens instead of each rebuilding it
+ * from the events.
+ *
+ * Every change bumps the version of the roster, which can be read:
+ * <ul>
+ * <li>as a whole, with {@link #getSnapshot()}: an immutable list shared by all
+ * the callers until the next change;</li>
+ * <li>incrementally, with {@link #getDiffSince(long)}: the participants which
+ * joined and left since a version;</li>
+ * <li>without copying, with {@link #getParticipants()} and
+ * {@link #getParticipant(String)}.</li>
+ * </ul>
+ * The roster is emptied when a conference is about to be joined and when it
+ * ends.
+ *
+ * Thread-safe. The changes are applied on the native modules thread and the
+ * roster can be read from any thread.
+ */
+public final class ParticipantRoster {
+    /**
+     * The number of changes remembered for {@link #getDiffSince(long)}.
+     */
+    private static final int CHANGE_LOG_SIZE = 1024;
+
+    private final Map<String, Participant> participants = new ConcurrentHashMap<>();
+
+    private final Collection<Participant> participantsView
+        = Collections.unmodifiableCollection(participants.values());
+
+    /**
+     * The id of the participant of each of the last changes, by version
+     * modulo {@link #CHANGE_LOG_SIZE}. Guarded by {@code this}.
+     */
+    private final String[] changedIds = new String[CHANGE_LOG_SIZE];
+
+    /**
+     * Whether each of the last changes is a join (or a leave). Guarded by
+     * {@code this}.
+     */
+    private final boolean[] changedJoins = new boolean[CHANGE_LOG_SIZE];
+
+    private volatile long version;
+
+    /**
+     * The version the roster was last emptied at. Guarded by {@code this}.
+     */
+    private long resetVersion;
+
+    /**
+     * The last snapshot, reused until the next change. Guarded by
+     * {@code this}.
+     */
+    @Nullable
+    private Snapshot snapshot;
+
+    ParticipantRoster() {
+    }
+
+    /**
+     * Applies the external API events which change the roster. Called by
+     * {@link JitsiMeetView}.
+     */
+    void onExternalAPIEvent(String name, ReadableMap data) {
+        switch (name) {
+            case "PARTICIPANT_JOINED": {
+                String id = getString(data, "userId");
+
+                if (id != null) {
+                    join(new Participant(
+                        id,
+                        data.hasKey("local")
+                            && data.getType("local") == ReadableType.Boolean
+                            && data.getBoolean("local"),
+                        getString(data, "displayName"),
+                        System.currentTimeMillis()));
+                }
+                break;
+            }
+            case "PARTICIPANT_UPDATED": {
+                String id = getString(data, "userId");
+
+                if (id != null && data.hasKey("displayName")) {
+                    rename(id, getString(data, "displayName"));
+                }
+                break;
+            }
+            case "CONFERENCE_JOINED": {
+                // The local participant, whose PARTICIPANT_JOINED is sent
+                // before it has an id.
+                String id = getString(data, "userId");
+
+                if (id != null) {
+                    join(new Participant(
+                        id,
+                        true,
+                        getString(data, "displayName"),
+                        System.currentTimeMillis()));
+                }
+                break;
+            }
+            case "PARTICIPANT_LEFT": {
+                String id = getString(data, "userId");
+
+                if (id != null) {
+                    leave(id);
+                }
+                break;
+            }
+            case "CONFERENCE_WILL_JOIN":
+            case "CONFERENCE_TERMINATED":
+                clear();
+                break;
+        }
+    }
+
+    @Nullable
+    private static String getString(ReadableMap data, String key) {
+        return data != null
+                && data.hasKey(key)
+                && data.getType(key) == ReadableType.String
+            ? data.getString(key)
+            : null;
+    }
+
+    private synchronized void join(Participant participant) {
+        boolean present = participants.put(participant.id, participant) != null;
+
+        // A participant joining again is an update: the diffs report it as
+        // added.
+        logChange(participant.id, !present);
+    }
+
+    private synchronized void rename(String id, @Nullable String displayName) {
+        Participant participant = participants.get(id);
+
+        if (participant != null
+                && !(displayName == null
+                    ? participant.displayName == null
+                    : displayName.equals(participant.displayName))) {
+            participants.put(
+                id,
+                new Participant(id, participant.local, displayName, participant.joinedAt));
+            logChange(id, false);
+        }
+    }
+
+    private synchronized void leave(String id) {
+        if (participants.remove(id) != null) {
+            logChange(id, false);
+        }
+    }
+
+    private synchronized void clear() {
+        if (!participants.isEmpty()) {
+            participants.clear();
+            resetVersion = ++version;
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Records a change and bumps the version.
+     *
+     * @param joined - Whether the participant was absent before the change,
+     * {@code false} for a participant who left, joined again or was
+     * renamed.
+     */
+    private void logChange(String id, boolean joined) {
+        long newVersion = version + 1;
+        int index = (int) (newVersion % CHANGE_LOG_SIZE);
+
+        changedIds[index] = id;
+        changedJoins[index] = joined;
+        snapshot = null;
+        version = newVersion;
+    }
+
+    /**
+     * Gets the version of the roster, bumped by every change.
+     *
+     * @return The version, 0 for a roster which never changed.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets a participant.
+     *
+     * @param id - The id of the participant.
+     * @return The participant, or {@code null} if there's no participant with
+     * the given id in the roster.
+     */
+    @Nullable
+    public Participant getParticipant(String id) {
+        return participants.get(id);
+    }
+
+    /**
+     * Gets the number of participants, the local one included.
+     *
+     * @return The number of participants.
+     */
+    public int size() {
+        return participants.size();
+    }
+
+    /**
+     * Gets a read-only, live view of the participants, in no particular
+     * order. Iterating it doesn't copy the roster and never throws
+     * {@link java.util.ConcurrentModificationException}, but it may or may not
+     * reflect the changes made meanwhile. Use {@link #getSnapshot()} for a
+     * consistent view.
+     *
+     * @return The participants.
+     */
+    public Collection<Participant> getParticipants() {
+        return participantsView;
+    }
+
+    /**
+     * Gets the participants at the current version. The snapshot is shared by
+     * all the callers until the roster changes.
+     *
+     * @return The snapshot.
+     */
+    public synchronized Snapshot getSnapshot() {
+        if (snapshot == null) {
+            snapshot
+                = new Snapshot(
+                    version,
+                    Collections.unmodifiableList(new ArrayList<>(participants.values())));
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Gets the changes since a version, e.g. the version of a snapshot or of
+     * the last diff. Several changes of the same participant are merged, a
+     * participant who joined and left since is not reported at all.
+     *
+     * When the changes since the version are not known anymore, because the
+     * roster was emptied or too many changes happened since, the diff is a
+     * reset: the previous state must be dropped and the diff lists all the
+     * participants as added.
+     *
+     * @param sinceVersion - The version to compute the changes from.
+     * @return The diff between {@code sinceVersion} and the current version.
+     */
+    public synchronized Diff getDiffSince(long sinceVersion) {
+        long toVersion = version;
+
+        if (sinceVersion >= toVersion) {
+            return new Diff(
+                sinceVersion,
+                toVersion,
+                false,
+                Collections.<Participant>emptyList(),
+                Collections.<String>emptyList());
+        }
+        if (sinceVersion < resetVersion || toVersion - sinceVersion > CHANGE_LOG_SIZE) {
+            return new Diff(
+                sinceVersion,
+                toVersion,
+                true,
+                getSnapshot().getParticipants(),
+                Collections.<String>emptyList());
+        }
+
+        // Whether each changed participant was present at sinceVersion, which
+        // the first change of the participant tells.
+        Map<String, Boolean> presentBefore = new LinkedHashMap<>();
+
+        for (long v = sinceVersion + 1; v <= toVersion; v++) {
+            int index = (int) (v % CHANGE_LOG_SIZE);
+            String id = changedIds[index];
+
+            if (!presentBefore.containsKey(id)) {
+                presentBefore.put(id, !changedJoins[index]);
+            }
+        }
+
+        List<Participant> added = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+
+        for (Map.Entry<String, Boolean> entry : presentBefore.entrySet()) {
+            Participant participant = participants.get(entry.getKey());
+
+            if (participant != null) {
+                added.add(participant);
+            } else if (entry.getValue()) {
+                removed.add(entry.getKey());
+            }
+        }
+
+        return new Diff(
+            sinceVersion,
+            toVersion,
+            false,
+            Collections.unmodifiableList(added),
+            Collections.unmodifiableList(removed));
+    }
+
+    /**
+     * A participant of the conference. Immutable.
+     */
+    public static final class Participant {
+        private final String id;
+        private final boolean local;
+        @Nullable
+        private final String displayName;
+        private final long joinedAt;
+
+        Participant(String id, boolean local, @Nullable String displayName, long joinedAt) {
+            this.id = id;
+            this.local = local;
+            this.displayName = displayName;
+            this.joinedAt = joinedAt;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Whether this is the local participant.
+         */
+        public boolean isLocal() {
+            return local;
+        }
+
+        /**
+         * The current display name, if any.
+         */
+        @Nullable
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * The time the participant joined, in milliseconds since the epoch.
+         */
+        public long getJoinedAt() {
+            return joinedAt;
+        }
+
+        @Override
+        public String toString() {
+            return "Participant{id=" + id + ", local=" + local + ", displayName=" + displayName + "}";
+        }
+    }
+
+    /**
+     * The participants at a version of the roster. Immutable.
+     */
+    public static final class Snapshot implements Iterable<Participant> {
+        private final long version;
+        private final List<Participant> participants;
+
+        Snapshot(long version, List<Participant> participants) {
+            this.version = version;
+            this.participants = participants;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * The participants, in no particular order. Read-only.
+         */
+        public List<Participant> getParticipants() {
+            return participants;
+        }
+
+        @Override
+        public Iterator<Participant> iterator() {
+            return participants.iterator();
+        }
+    }
+
+    /**
+     * The changes of the roster between two versions. Immutable.
+     */
+    public static final class Diff {
+        private final long fromVersion;
+        private final long toVersion;
+        private final boolean reset;
+        private final List<Participant> added;
+        private final List<String> removed;
+
+        Diff(
+                long fromVersion,
+                long toVersion,
+                boolean reset,
+                List<Participant> added,
+                List<String> removed) {
+            this.fromVersion = fromVersion;
+            this.toVersion = toVersion;
+            this.reset = reset;
+            this.added = added;
+            this.removed = removed;
+        }
+
+        public long getFromVersion() {
+            return fromVersion;
+        }
+
+        /**
+         * The version to get the next diff from.
+         */
+        public long getToVersion() {
+            return toVersion;
+        }
+
+        /**
+         * Whether the state at {@link #getFromVersion()} must be dropped, in
+         * which case {@link #getAdded()} lists all the participants.
+         */
+        public boolean isReset() {
+            return reset;
+        }
+
+        /**
+         * The participants who joined, joined again or were renamed since
+         * {@link #getFromVersion()}. Read-only.
+         */
+        public List<Participant> getAdded() {
+            return added;
+        }
+
+        /**
+         * The ids of the participants who left since
+         * {@link #getFromVersion()}. Read-only.
+         */
+        public List<String> getRemoved() {
+            return removed;
+        }
+    }
+}
@@ -17,6 +17,10 @@
 package org.jitsi.meet.sdk;
 
 import android.app.Activity;
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 
 import androidx.annotation.Nullable;
 
@@ -33,6 +37,8 @@ import com.facebook.react.uimanager.ViewManager;
 import com.facebook.soloader.SoLoader;
 import com.masteratul.exceptionhandler.ReactNativeExceptionHandlerPackage;
 
+import org.jitsi.meet.sdk.log.JitsiMeetLogger;
+
 import com.oney.WebRTCModule.RTCVideoViewManager;
 import com.oney.WebRTCModule.WebRTCModule;
 
@@ -47,6 +53,12 @@ import java.util.Arrays;
 import java.util.List;
 
 class ReactInstanceManagerHolder {
+    /**
+     * The {@code Log} tag {@code ReactInstanceManagerHolder} is to log
+     * messages with.
+     */
+    private static final String TAG = ReactInstanceManagerHolder.class.getSimpleName();
+
     /**
      * FIXME (from linter): Do not place Android context classes in static
      * fields (static reference to ReactInstanceManager which has field
@@ -56,7 +68,19 @@ class ReactInstanceManagerHolder {
      * React Native bridge. The instance manager allows embedding applications
      * to create multiple root views off the same JavaScript bundle.
      */
-    private static ReactInstanceManager reactInstanceManager;
+    private static volatile ReactInstanceManager reactInstanceManager;
+
+    /**
+     * Whether {@link #prewarm(Application)} has already been called.
+     */
+    private static boolean prewarmStarted;
+
+    /**
+     * The {@link SystemClock#elapsedRealtime()} at which the initialization of
+     * the React Native instance manager started. It's the reference point of
+     * the startup timings logged by {@link #logStartupTiming(String)}.
+     */
+    private static long initStartTime;
 
     private static List<NativeModule> createNativeModules(ReactApplicationContext reactContext) {
         List<NativeModule> nativeModules
@@ -64,6 +88,7 @@ class ReactInstanceManagerHolder {
                 new AndroidSettingsModule(reactContext),
                 new AppInfoModule(reactContext),
                 new AudioModeModule(reactContext),
+                new ConnectionQualityEstimator(reactContext),
                 new DropboxModule(reactContext),
                 new ExternalAPIModule(reactContext),
                 new JavaScriptSandboxModule(reactContext),
@@ -173,6 +198,50 @@ class ReactInstanceManagerHolder {
         return reactInstanceManager;
     }
 
+    /**
+     * Logs the time elapsed since the initialization of the React Native
+     * instance manager started, for the given startup stage.
+     *
+     * @param stage - The name of the startup stage which was just reached.
+     */
+    static void logStartupTiming(String stage) {
+        JitsiMeetLogger.i("%s %s: +%d ms", TAG, stage, SystemClock.elapsedRealtime() - initStartTime);
+    }
+
+    /**
+     * Starts initializing the React Native instance manager off the main
+     * thread, and then starts creating the React context in the background,
+     * so the first {@code ReactRootView} attaches to an (almost) ready
+     * context. Subsequent calls are no-ops.
+     *
+     * @param application {@code Application} the current application.
+     */
+    static synchronized void prewarm(final Application application) {
+        if (prewarmStarted || reactInstanceManager != null) {
+            return;
+        }
+
+        prewarmStarted = true;
+
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                initReactInstanceManager(application, null);
+
+                // The React context can only be created from the main thread.
+                new Handler(Looper.getMainLooper()).post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!reactInstanceManager.hasStartedCreatingInitialContext()) {
+                            reactInstanceManager.createReactContextInBackground();
+                            logStartupTiming("React context creation started");
+                        }
+                    }
+                });
+            }
+        }, "JitsiMeetPrewarm").start();
+    }
+
     /**
      * Internal method to initialize the React Native instance manager. We
      * create a single instance in order to load the JavaScript bundle a single
@@ -182,11 +251,28 @@ class ReactInstanceManagerHolder {
      * @param activity {@code Activity} current running Activity.
      */
     static void initReactInstanceManager(Activity activity) {
+        initReactInstanceManager(activity.getApplication(), activity);
+    }
+
+    /**
+     * Initializes the React Native instance manager, if it wasn't already
+     * initialized. If a prewarm is in progress on another thread, this waits
+     * for it to finish instead of creating a second instance.
+     *
+     * @param application {@code Application} the current application.
+     * @param activity {@code Activity} current running Activity, or
+     * {@code null} if there is none yet (i.e. when prewarming).
+     */
+    private static synchronized void initReactInstanceManager(
+            Application application,
+            @Nullable Activity activity) {
         if (reactInstanceManager != null) {
             return;
         }
 
-        SoLoader.init(activity, /* native exopackage */ false);
+        initStartTime = SystemClock.elapsedRealtime();
+
+        SoLoader.init(application, /* native exopackage */ false);
 
         List<ReactPackage> packages
             = new ArrayList<>(Arrays.asList(
@@ -224,26 +310,42 @@ class ReactInstanceManagerHolder {
         // Use the Hermes JavaScript engine.
         HermesExecutorFactory jsFactory = new HermesExecutorFactory();
 
-        reactInstanceManager
+        // Without an Activity (i.e. when prewarming) the lifecycle is moved
+        // forward by JitsiMeetActivityDelegate.onHostResume later on.
+        ReactInstanceManager instanceManager
             = ReactInstanceManager.builder()
-                .setApplication(activity.getApplication())
+                .setApplication(application)
                 .setCurrentActivity(activity)
                 .setBundleAssetName("index.android.bundle")
                 .setJSMainModulePath("index.android")
                 .setJavaScriptExecutorFactory(jsFactory)
                 .addPackages(packages)
                 .setUseDeveloperSupport(BuildConfig.DEBUG)
-                .setInitialLifecycleState(LifecycleState.RESUMED)
+                .setInitialLifecycleState(
+                    activity != null ? LifecycleState.RESUMED : LifecycleState.BEFORE_CREATE)
                 .build();
 
+        instanceManager.addReactInstanceEventListener(new ReactInstanceManager.ReactInstanceEventListener() {
+            @Override
+            public void onReactContextInitialized(ReactContext context) {
+                logStartupTiming("React context initialized");
+            }
+        });
+
         // Disable delta updates on Android, they have caused trouble.
         DevInternalSettings devSettings
-            = (DevInternalSettings)reactInstanceManager.getDevSupportManager().getDevSettings();
+            = (DevInternalSettings)instanceManager.getDevSupportManager().getDevSettings();
         if (devSettings != null) {
             devSettings.setBundleDeltasEnabled(false);
         }
 
         // Register our uncaught exception handler.
         JitsiMeetUncaughtExceptionHandler.register();
+
+        // Publish the instance only once it's fully set up, readers don't
+        // take the lock.
+        reactInstanceManager = instanceManager;
+
+        logStartupTiming("React instance manager created");
     }
 }
@@ -0,0 +1,223 @@
+/*
+ * Copyright © 2020. cabi LLC. All rights reserved.
+ */
+
+package org.jitsi.meet.sdk;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only {@link Map} view over a {@link ReadableMap}, which is how event
+ * data is handed to the listeners of {@link BaseReactView}s.
+ *
+ * Values keep their JavaScript types: booleans are {@link Boolean}s, numbers
+ * are {@link Double}s, strings are {@link String}s, objects are (lazy)
+ * {@code Map}s and arrays are (lazy) {@code List}s. Nothing is converted until
+ * it's accessed, and each value is converted only once.
+ *
+ * NOTE: Instances are not thread-safe.
+ */
+class ReadableMapView extends AbstractMap<String, Object> {
+    /**
+     * The wrapped map.
+     */
+    private final ReadableMap readableMap;
+
+    /**
+     * The values converted so far, by key.
+     */
+    private final HashMap<String, Object> values = new HashMap<>();
+
+    /**
+     * The number of keys, or -1 if not counted yet.
+     */
+    private int size = -1;
+
+    ReadableMapView(ReadableMap readableMap) {
+        this.readableMap = readableMap;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && readableMap.hasKey((String) key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (!containsKey(key)) {
+            return null;
+        }
+
+        String k = (String) key;
+
+        if (values.containsKey(k)) {
+            return values.get(k);
+        }
+
+        Object value = convert(readableMap, k);
+
+        values.put(k, value);
+
+        return value;
+    }
+
+    @NonNull
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @NonNull
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                final ReadableMapKeySetIterator keys = readableMap.keySetIterator();
+
+                return new Iterator<Entry<String, Object>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return keys.hasNextKey();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (!keys.hasNextKey()) {
+                            throw new NoSuchElementException();
+                        }
+
+                        String key = keys.nextKey();
+
+                        return new SimpleImmutableEntry<>(key, get(key));
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ReadableMapView.this.size();
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        if (size == -1) {
+            int count = 0;
+
+            for (ReadableMapKeySetIterator i = readableMap.keySetIterator();
+                    i.hasNextKey();) {
+                i.nextKey();
+                count++;
+            }
+            size = count;
+        }
+
+        return size;
+    }
+
+    /**
+     * Converts the value of the given key of a {@link ReadableMap}.
+     */
+    @Nullable
+    private static Object convert(ReadableMap map, String key) {
+        switch (map.getType(key)) {
+            case Boolean:
+                return map.getBoolean(key);
+            case Number:
+                return map.getDouble(key);
+            case String:
+                return map.getString(key);
+            case Map:
+                return new ReadableMapView(map.getMap(key));
+            case Array:
+                return new ReadableArrayView(map.getArray(key));
+            case Null:
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Read-only {@link java.util.List} view over a {@link ReadableArray},
+     * converting its elements lazily like {@link ReadableMapView} does.
+     */
+    static class ReadableArrayView extends AbstractList<Object> {
+        /**
+         * Marks the elements which were not converted yet.
+         */
+        private static final Object NOT_CONVERTED = new Object();
+
+        /**
+         * The wrapped array.
+         */
+        private final ReadableArray readableArray;
+
+        /**
+         * The elements converted so far.
+         */
+        private final Object[] values;
+
+        ReadableArrayView(ReadableArray readableArray) {
+            this.readableArray = readableArray;
+            this.values = new Object[readableArray.size()];
+
+            for (int i = 0; i < values.length; i++) {
+                values[i] = NOT_CONVERTED;
+            }
+        }
+
+        @Override
+        public Object get(int index) {
+            Object value = values[index];
+
+            if (value == NOT_CONVERTED) {
+                value = values[index] = convert(readableArray, index);
+            }
+
+            return value;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        /**
+         * Converts the element at the given index of a {@link ReadableArray}.
+         */
+        @Nullable
+        private static Object convert(ReadableArray array, int index) {
+            switch (array.getType(index)) {
+                case Boolean:
+                    return array.getBoolean(index);
+                case Number:
+                    return array.getDouble(index);
+                case String:
+                    return array.getString(index);
+                case Map:
+                    return new ReadableMapView(array.getMap(index));
+                case Array:
+                    return new ReadableArrayView(array.getArray(index));
+                case Null:
+                default:
+                    return null;
+            }
+        }
+    }
+}
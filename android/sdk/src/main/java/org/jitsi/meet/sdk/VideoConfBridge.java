@@ -4,8 +4,6 @@
 
 package org.jitsi.meet.sdk;
 
-import org.jitsi.meet.sdk.ReactInstanceManagerHolder;
-
 public class VideoConfBridge {
 
     /**
@@ -78,18 +76,31 @@ public class VideoConfBridge {
      */
     private static final String SET_IS_SIMPLIFIED_CONFERENCE = "org.jitsi.meet:features/videoconf-bridge#set-is-simplified-conference";
 
+    /**
+     * Batch of videoconf bridge events, see {@link BatchedEventEmitter}.
+     */
+    private static final String BATCH = "org.jitsi.meet:features/videoconf-bridge#batch";
+
+    /**
+     * All events of this bridge go through this emitter, so the events sent in
+     * quick succession cross the bridge once. Events which only carry the
+     * latest state (swiper index, countdown, placeholder data etc.) are
+     * coalesced.
+     */
+    private static final BatchedEventEmitter emitter = new BatchedEventEmitter(BATCH);
+
     /**
      * Sends a videoconf join event to React Native.
      */
     public static void joinConference(String dataJsonString) {
-        ReactInstanceManagerHolder.emitEvent(VIDEOCONF_JOIN, dataJsonString);
+        emitter.emit(VIDEOCONF_JOIN, dataJsonString);
     }
 
     /**
      * Sends a videoconf leave event to React Native.
      */
     public static void leaveConference() {
-        ReactInstanceManagerHolder.emitEvent(VIDEOCONF_LEAVE, null);
+        emitter.emit(VIDEOCONF_LEAVE, null);
     }
 
     /**
@@ -100,83 +111,83 @@ public class VideoConfBridge {
      * }
      */
     public static void muteMedia(String dataJsonString) {
-        ReactInstanceManagerHolder.emitEvent(MUTE_MEDIA, dataJsonString);
+        emitter.emit(MUTE_MEDIA, dataJsonString);
     }
 
     /**
      * Switch camera between front-back.
      */
     public static void switchCamera() {
-        ReactInstanceManagerHolder.emitEvent(SWITCH_CAMERA, null);
+        emitter.emit(SWITCH_CAMERA, null);
     }
 
     /**
      * Send jitsi command in confernce.
      */
     public static void sendJitsiCommand(String dataJsonString) {
-        ReactInstanceManagerHolder.emitEvent(SEND_COMMAND, dataJsonString);
+        emitter.emit(SEND_COMMAND, dataJsonString);
     }
 
     /**
      * Remove jitsi command from presence.
      */
     public static void removeJitsiCommand(String commandName) {
-        ReactInstanceManagerHolder.emitEvent(REMOVE_COMMAND, commandName);
+        emitter.emit(REMOVE_COMMAND, commandName);
     }
 
     /**
      * Swipe to given page.
      */
     public static void setCurrentSwiperIndex(String pageNumber) {
-        ReactInstanceManagerHolder.emitEvent(SET_CURRENT_SWIPER_INDEX, pageNumber);
+        emitter.emitLatest(SET_CURRENT_SWIPER_INDEX, pageNumber);
     }
 
     /**
      * Show wrap up buttons.
      */
     public static void showWrapUpButtons() {
-        ReactInstanceManagerHolder.emitEvent(SHOW_WRAP_UP_BUTTONS, null);
+        emitter.emit(SHOW_WRAP_UP_BUTTONS, null);
     }
 
     /**
      * Sends in-focus placeholder data to React Native.
      */
     public static void sendPlaceholderData(String data) {
-        ReactInstanceManagerHolder.emitEvent(PLACEHOLDER_DATA, data);
+        emitter.emitLatest(PLACEHOLDER_DATA, data);
     }
 
     /**
      * Set pre show countdown date time.
      */
     public static void setCountdown(String datetime) {
-        ReactInstanceManagerHolder.emitEvent(SET_COUNTDOWN, datetime);
+        emitter.emitLatest(SET_COUNTDOWN, datetime);
     }
 
     /**
      * Update video conference user profile image.
      */
     public static void updateUserAvatar(String data) {
-        ReactInstanceManagerHolder.emitEvent(UPDATE_USER_AVATAR_EVENT, data);
+        emitter.emitLatest(UPDATE_USER_AVATAR_EVENT, data);
     }
 
     /**
      * Sends a view change event to React Native.
      */
     public static void showSpeakerView(boolean shouldShow) {
-        ReactInstanceManagerHolder.emitEvent(SHOW_SPEAKER_VIEW, shouldShow);
+        emitter.emitLatest(SHOW_SPEAKER_VIEW, shouldShow);
     }
 
     /**
      * Mute/unmute remote audio tracks in video conference locally.
      */
     public static void muteVideoConferenceAudio(boolean mute) {
-        ReactInstanceManagerHolder.emitEvent(MUTE_CONFERENCE_AUDIO, mute);
+        emitter.emitLatest(MUTE_CONFERENCE_AUDIO, mute);
     }
 
     /**
      * Sets whether video conference is simplified.
      */
     public static void setIsSimplifiedConference(final boolean isSimplifiedConference) {
-        ReactInstanceManagerHolder.emitEvent(SET_IS_SIMPLIFIED_CONFERENCE, isSimplifiedConference);
+        emitter.emitLatest(SET_IS_SIMPLIFIED_CONFERENCE, isSimplifiedConference);
     }
 }
@@ -0,0 +1,241 @@
+/*
+ * Copyright © 2020. cabi LLC. All rights reserved.
+ */
+
+package org.jitsi.meet.sdk;
+
+/**
+ * Keeps the recent RSSI and link speed samples of the WiFi link and their
+ * statistics: an exponentially weighted moving average of both and the
+ * variance of the RSSI over the samples in the window.
+ *
+ * The samples are kept in fixed size primitive ring buffers, adding a sample
+ * doesn't allocate.
+ *
+ * NOTE: Instances are not thread-safe.
+ */
+class WiFiLinkSampler {
+    /**
+     * The number of samples kept.
+     */
+    static final int WINDOW_SIZE = 32;
+
+    /**
+     * The default change of the average RSSI, in dBm, which is reported.
+     */
+    static final int DEFAULT_RSSI_THRESHOLD = 5;
+
+    /**
+     * The default change of the average link speed, in percent, which is
+     * reported.
+     */
+    static final int DEFAULT_LINK_SPEED_THRESHOLD = 25;
+
+    /**
+     * The weight of a new sample in the moving averages.
+     */
+    private static final double ALPHA = 0.3;
+
+    private final int[] rssis = new int[WINDOW_SIZE];
+
+    private final int[] linkSpeeds = new int[WINDOW_SIZE];
+
+    /**
+     * The index the next sample is written at.
+     */
+    private int next;
+
+    /**
+     * The number of samples in the window.
+     */
+    private int count;
+
+    private double rssiAverage;
+
+    private double linkSpeedAverage;
+
+    private long timestamp;
+
+    /**
+     * The averages last reported, {@code NaN} if none was.
+     */
+    private double reportedRssi = Double.NaN;
+
+    private double reportedLinkSpeed = Double.NaN;
+
+    private int rssiThreshold = DEFAULT_RSSI_THRESHOLD;
+
+    private int linkSpeedThreshold = DEFAULT_LINK_SPEED_THRESHOLD;
+
+    /**
+     * Sets the changes of the averages which are reported by
+     * {@link #add(int, int, long)}.
+     *
+     * @param rssiThreshold - The change of the average RSSI, in dBm.
+     * @param linkSpeedThreshold - The change of the average link speed, in
+     * percent.
+     */
+    void setThresholds(int rssiThreshold, int linkSpeedThreshold) {
+        this.rssiThreshold = Math.max(1, rssiThreshold);
+        this.linkSpeedThreshold = Math.max(1, linkSpeedThreshold);
+    }
+
+    /**
+     * Adds a sample.
+     *
+     * @param rssi - The RSSI, in dBm.
+     * @param linkSpeed - The link speed, in Mbps.
+     * @param timestamp - When the sample was taken, in milliseconds.
+     * @return {@code true} if an average crossed its threshold since the last
+     * time this returned {@code true}, or this is the first sample.
+     */
+    boolean add(int rssi, int linkSpeed, long timestamp) {
+        rssis[next] = rssi;
+        linkSpeeds[next] = linkSpeed;
+        next = (next + 1) % WINDOW_SIZE;
+        if (count < WINDOW_SIZE) {
+            count++;
+        }
+
+        if (count == 1) {
+            rssiAverage = rssi;
+            linkSpeedAverage = linkSpeed;
+        } else {
+            rssiAverage += ALPHA * (rssi - rssiAverage);
+            linkSpeedAverage += ALPHA * (linkSpeed - linkSpeedAverage);
+        }
+        this.timestamp = timestamp;
+
+        boolean crossed
+            = Double.isNaN(reportedRssi)
+                || Math.abs(rssiAverage - reportedRssi) >= rssiThreshold
+                || Math.abs(linkSpeedAverage - reportedLinkSpeed)
+                    >= Math.max(1, reportedLinkSpeed) * linkSpeedThreshold / 100;
+
+        if (crossed) {
+            reportedRssi = rssiAverage;
+            reportedLinkSpeed = linkSpeedAverage;
+        }
+
+        return crossed;
+    }
+
+    /**
+     * Forgets all the samples, e.g. because the WiFi network changed.
+     */
+    void reset() {
+        next = 0;
+        count = 0;
+        reportedRssi = Double.NaN;
+        reportedLinkSpeed = Double.NaN;
+    }
+
+    /**
+     * Gets the statistics of the samples in the window.
+     *
+     * @return The statistics, or {@code null} if there are no samples.
+     */
+    Stats getStats() {
+        if (count == 0) {
+            return null;
+        }
+
+        int last = (next + WINDOW_SIZE - 1) % WINDOW_SIZE;
+        int minRssi = Integer.MAX_VALUE;
+        int maxRssi = Integer.MIN_VALUE;
+        long sum = 0;
+
+        for (int i = 0; i < count; i++) {
+            int rssi = rssis[i];
+
+            sum += rssi;
+            minRssi = Math.min(minRssi, rssi);
+            maxRssi = Math.max(maxRssi, rssi);
+        }
+
+        double mean = (double) sum / count;
+        double squares = 0;
+
+        for (int i = 0; i < count; i++) {
+            double d = rssis[i] - mean;
+
+            squares += d * d;
+        }
+
+        return new Stats(
+            rssis[last],
+            linkSpeeds[last],
+            rssiAverage,
+            squares / count,
+            minRssi,
+            maxRssi,
+            linkSpeedAverage,
+            count,
+            timestamp);
+    }
+
+    /**
+     * The statistics of the WiFi link samples in the window.
+     */
+    static class Stats {
+        /**
+         * The last RSSI, in dBm.
+         */
+        final int rssi;
+
+        /**
+         * The last link speed, in Mbps.
+         */
+        final int linkSpeed;
+
+        /**
+         * The moving average of the RSSI.
+         */
+        final double rssiAverage;
+
+        /**
+         * The variance of the RSSI in the window.
+         */
+        final double rssiVariance;
+
+        final int rssiMin;
+
+        final int rssiMax;
+
+        /**
+         * The moving average of the link speed.
+         */
+        final double linkSpeedAverage;
+
+        /**
+         * The number of samples in the window.
+         */
+        final int samples;
+
+        /**
+         * When the last sample was taken, in milliseconds.
+         */
+        final long timestamp;
+
+        Stats(
+                int rssi,
+                int linkSpeed,
+                double rssiAverage,
+                double rssiVariance,
+                int rssiMin,
+                int rssiMax,
+                double linkSpeedAverage,
+                int samples,
+                long timestamp) {
+            this.rssi = rssi;
+            this.linkSpeed = linkSpeed;
+            this.rssiAverage = rssiAverage;
+            this.rssiVariance = rssiVariance;
+            this.rssiMin = rssiMin;
+            this.rssiMax = rssiMax;
+            this.linkSpeedAverage = linkSpeedAverage;
+            this.samples = samples;
+            this.timestamp = timestamp;
+        }
+    }
+}
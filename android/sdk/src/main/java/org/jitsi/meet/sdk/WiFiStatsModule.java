@@ -17,13 +17,19 @@
 package org.jitsi.meet.sdk;
 
 import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.LinkProperties;
+import android.net.Network;
 import android.net.wifi.WifiInfo;
 import android.net.wifi.WifiManager;
 
+import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.module.annotations.ReactModule;
 
 import org.jitsi.meet.sdk.log.JitsiMeetLogger;
@@ -34,15 +40,28 @@ import java.net.InetAddress;
 import java.net.NetworkInterface;
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
-import java.util.concurrent.ExecutorService;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Module exposing WiFi statistics.
  *
  * Gathers rssi, signal in percentage, timestamp and the addresses of the wifi
- * device.
+ * device. The addresses are cached until the connectivity changes.
+ *
+ * Besides answering {@link #getWiFiStats(Promise)}, the module can sample the
+ * WiFi link periodically (see {@link #startSampling(ReadableMap)}). The
+ * samples go to the native {@link SampleListener}s, and to JS as
+ * {@link #UPDATE_EVENT} when the averages cross their thresholds.
  */
 @ReactModule(name = WiFiStatsModule.NAME)
 class WiFiStatsModule
@@ -62,10 +81,79 @@ class WiFiStatsModule
     public final static int SIGNAL_LEVEL_SCALE = 101;
 
     /**
-     * {@link ExecutorService} for running all operations on a dedicated thread.
+     * The event emitted when the WiFi link averages cross their thresholds.
+     */
+    private static final String UPDATE_EVENT = "org.jitsi.meet:features/wifi-stats#update";
+
+    /**
+     * The default sampling period, in milliseconds.
+     */
+    private static final int DEFAULT_PERIOD_MS = 2000;
+
+    /**
+     * The minimum sampling period, in milliseconds.
+     */
+    private static final int MIN_PERIOD_MS = 250;
+
+    /**
+     * {@link ScheduledExecutorService} for running all operations on a
+     * dedicated thread.
+     */
+    private static final ScheduledExecutorService executor
+        = Executors.newSingleThreadScheduledExecutor();
+
+    /**
+     * The native listeners of the WiFi link samples.
+     */
+    private final List<SampleListener> sampleListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Invalidates the cached addresses and samples when the connectivity
+     * changes, and only the cached addresses when the link properties (e.g.
+     * DHCP lease, DNS servers) of a network change, as the link itself stays
+     * the same.
+     */
+    private final ConnectivityManager.NetworkCallback networkCallback
+        = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(Network network) {
+                onConnectivityChange();
+            }
+
+            @Override
+            public void onLost(Network network) {
+                onConnectivityChange();
+            }
+
+            @Override
+            public void onLinkPropertiesChanged(Network network, LinkProperties linkProperties) {
+                invalidateAddresses();
+            }
+        };
+
+    // The fields below are only accessed on the executor.
+
+    private final WiFiLinkSampler sampler = new WiFiLinkSampler();
+
+    /**
+     * The WiFi IP address {@link #cachedAddresses} are for, 0 if none.
+     */
+    private int cachedAddressesIp;
+
+    /**
+     * The non link local addresses of the WiFi interface.
+     */
+    private List<String> cachedAddresses = Collections.emptyList();
+
+    /**
+     * The periodic sampling task, {@code null} if not sampling.
      */
-    private static final ExecutorService executor
-        = Executors.newSingleThreadExecutor();
+    private ScheduledFuture<?> sampling;
+
+    /**
+     * Whether the WiFi was connected at the last sample.
+     */
+    private boolean sampledConnected;
 
     /**
      * Initializes a new module instance. There shall be a single instance of
@@ -88,6 +176,281 @@ class WiFiStatsModule
         return NAME;
     }
 
+    @Override
+    public Map<String, Object> getConstants() {
+        Map<String, Object> constants = new HashMap<>();
+
+        constants.put("UPDATE_EVENT", UPDATE_EVENT);
+
+        return constants;
+    }
+
+    @Override
+    public void initialize() {
+        ConnectivityManager connectivityManager = getConnectivityManager();
+
+        if (connectivityManager != null) {
+            try {
+                connectivityManager.registerDefaultNetworkCallback(networkCallback);
+            } catch (RuntimeException e) {
+                JitsiMeetLogger.w(e, TAG + " Failed to register network callback");
+            }
+        }
+    }
+
+    @Override
+    public void onCatalystInstanceDestroy() {
+        ConnectivityManager connectivityManager = getConnectivityManager();
+
+        if (connectivityManager != null) {
+            try {
+                connectivityManager.unregisterNetworkCallback(networkCallback);
+            } catch (RuntimeException e) {
+                // Not registered.
+            }
+        }
+
+        stopSampling();
+    }
+
+    private ConnectivityManager getConnectivityManager() {
+        return (ConnectivityManager)
+            getReactApplicationContext().getSystemService(Context.CONNECTIVITY_SERVICE);
+    }
+
+    private WifiManager getWifiManager() {
+        Context context = getReactApplicationContext().getApplicationContext();
+
+        return (WifiManager) context.getSystemService(Context.WIFI_SERVICE);
+    }
+
+    private void onConnectivityChange() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                cachedAddressesIp = 0;
+                cachedAddresses = Collections.emptyList();
+                sampler.reset();
+            }
+        });
+    }
+
+    private void invalidateAddresses() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                cachedAddressesIp = 0;
+                cachedAddresses = Collections.emptyList();
+            }
+        });
+    }
+
+    /**
+     * Adds a native listener of the WiFi link samples. Only notified while
+     * sampling.
+     *
+     * @param listener - The listener, notified on the module's thread.
+     */
+    void addSampleListener(SampleListener listener) {
+        sampleListeners.add(listener);
+    }
+
+    void removeSampleListener(SampleListener listener) {
+        sampleListeners.remove(listener);
+    }
+
+    /**
+     * Starts sampling the WiFi link, or changes the sampling options if
+     * sampling already.
+     *
+     * @param options - The sampling {@code period} (in milliseconds), the
+     * {@code rssiThreshold} (in dBm) and the {@code linkSpeedThreshold} (in
+     * percent) the averages must change by to emit an update to JS. All are
+     * optional.
+     */
+    @ReactMethod
+    public void startSampling(ReadableMap options) {
+        final int period
+            = Math.max(
+                MIN_PERIOD_MS,
+                getInt(options, "period", DEFAULT_PERIOD_MS));
+        final int rssiThreshold
+            = getInt(options, "rssiThreshold", WiFiLinkSampler.DEFAULT_RSSI_THRESHOLD);
+        final int linkSpeedThreshold
+            = getInt(options, "linkSpeedThreshold", WiFiLinkSampler.DEFAULT_LINK_SPEED_THRESHOLD);
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                sampler.setThresholds(rssiThreshold, linkSpeedThreshold);
+
+                if (sampling != null) {
+                    sampling.cancel(false);
+                }
+                sampling = executor.scheduleWithFixedDelay(new Runnable() {
+                    @Override
+                    public void run() {
+                        sample();
+                    }
+                }, 0, period, TimeUnit.MILLISECONDS);
+
+                JitsiMeetLogger.d(TAG + " Sampling every " + period + " ms");
+            }
+        });
+    }
+
+    /**
+     * Stops sampling the WiFi link.
+     */
+    @ReactMethod
+    public void stopSampling() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (sampling != null) {
+                    sampling.cancel(false);
+                    sampling = null;
+                }
+                sampler.reset();
+                // The next sampling starts over, a disconnected WiFi is not a
+                // change then.
+                sampledConnected = false;
+            }
+        });
+    }
+
+    private static int getInt(ReadableMap map, String key, int defaultValue) {
+        return map != null && map.hasKey(key) && !map.isNull(key)
+            ? map.getInt(key)
+            : defaultValue;
+    }
+
+    /**
+     * Samples the WiFi link. Runs on the executor.
+     */
+    private void sample() {
+        WifiInfo wifiInfo;
+
+        try {
+            WifiManager wifiManager = getWifiManager();
+
+            wifiInfo
+                = wifiManager.isWifiEnabled() ? wifiManager.getConnectionInfo() : null;
+        } catch (Throwable tr) {
+            JitsiMeetLogger.w(tr, TAG + " Failed to sample WiFi link");
+            return;
+        }
+
+        boolean connected = wifiInfo != null && wifiInfo.getNetworkId() != -1;
+
+        if (!connected) {
+            if (sampledConnected) {
+                sampledConnected = false;
+                sampler.reset();
+
+                WritableMap data = Arguments.createMap();
+
+                data.putBoolean("connected", false);
+                data.putDouble("timestamp", System.currentTimeMillis());
+                ReactInstanceManagerHolder.emitEvent(UPDATE_EVENT, data);
+            }
+            return;
+        }
+
+        sampledConnected = true;
+
+        boolean crossed
+            = sampler.add(
+                wifiInfo.getRssi(),
+                wifiInfo.getLinkSpeed(),
+                System.currentTimeMillis());
+        WiFiLinkSampler.Stats stats = sampler.getStats();
+
+        for (SampleListener listener : sampleListeners) {
+            try {
+                listener.onWiFiSample(stats);
+            } catch (Throwable tr) {
+                JitsiMeetLogger.e(tr, TAG + " WiFi sample listener failed");
+            }
+        }
+
+        if (crossed) {
+            WritableMap data = Arguments.createMap();
+
+            data.putBoolean("connected", true);
+            data.putInt("rssi", stats.rssi);
+            data.putInt(
+                "signal",
+                WifiManager.calculateSignalLevel(stats.rssi, SIGNAL_LEVEL_SCALE));
+            data.putInt("linkSpeed", stats.linkSpeed);
+            data.putDouble("rssiAverage", stats.rssiAverage);
+            data.putDouble("rssiVariance", stats.rssiVariance);
+            data.putDouble("linkSpeedAverage", stats.linkSpeedAverage);
+            data.putDouble("timestamp", stats.timestamp);
+            ReactInstanceManagerHolder.emitEvent(UPDATE_EVENT, data);
+        }
+    }
+
+    /**
+     * Gets the addresses of the WiFi interface, from the cache unless the
+     * WiFi IP address changed. Runs on the executor.
+     *
+     * @param wifiIp the WiFi IP address, as returned by
+     * {@link WifiInfo#getIpAddress()}.
+     */
+    private List<String> getWiFiAddresses(int wifiIp)
+            throws UnknownHostException {
+        if (wifiIp != 0 && wifiIp == cachedAddressesIp) {
+            return cachedAddresses;
+        }
+
+        List<String> addresses = new ArrayList<>();
+        InetAddress wifiAddress = toInetAddress(wifiIp);
+
+        try {
+            Enumeration<NetworkInterface> e
+                =  NetworkInterface.getNetworkInterfaces();
+            while (e.hasMoreElements()) {
+                NetworkInterface networkInterface = e.nextElement();
+                boolean found = false;
+
+                // first check whether this is the desired interface
+                Enumeration<InetAddress> as
+                    = networkInterface.getInetAddresses();
+                while (as.hasMoreElements()) {
+                    InetAddress a = as.nextElement();
+                    if(a.equals(wifiAddress)) {
+                        found = true;
+                        break;
+                    }
+                }
+
+                if (found) {
+                    // interface found let's put addresses
+                    // to the result object
+                    as = networkInterface.getInetAddresses();
+                    while (as.hasMoreElements()) {
+                        InetAddress a = as.nextElement();
+                        if (a.isLinkLocalAddress())
+                            continue;
+
+                        addresses.add(a.getHostAddress());
+                    }
+                }
+
+            }
+        } catch (SocketException e) {
+            JitsiMeetLogger.e(e, TAG + " Unable to NetworkInterface.getNetworkInterfaces()");
+
+            // Don't cache, try again next time.
+            return addresses;
+        }
+
+        cachedAddressesIp = wifiIp;
+        cachedAddresses = addresses;
+
+        return addresses;
+    }
     /**
      * Returns the {@link InetAddress} represented by this int.
      *
@@ -118,11 +481,7 @@ class WiFiStatsModule
             @Override
             public void run() {
                 try {
-                    Context context
-                        = getReactApplicationContext().getApplicationContext();
-                    WifiManager wifiManager
-                        = (WifiManager) context
-                            .getSystemService(Context.WIFI_SERVICE);
+                    WifiManager wifiManager = getWifiManager();
 
                     if (!wifiManager.isWifiEnabled()) {
                         promise.reject(new Exception("Wifi not enabled"));
@@ -146,51 +505,15 @@ class WiFiStatsModule
                         .put("signal", signalLevel)
                         .put("timestamp", System.currentTimeMillis());
 
-                    JSONArray addresses = new JSONArray();
-
-                    InetAddress wifiAddress
-                        = toInetAddress(wifiInfo.getIpAddress());
-
-                    try {
-                        Enumeration<NetworkInterface> e
-                            =  NetworkInterface.getNetworkInterfaces();
-                        while (e.hasMoreElements()) {
-                            NetworkInterface networkInterface = e.nextElement();
-                            boolean found = false;
-
-                            // first check whether this is the desired interface
-                            Enumeration<InetAddress> as
-                                = networkInterface.getInetAddresses();
-                            while (as.hasMoreElements()) {
-                                InetAddress a = as.nextElement();
-                                if(a.equals(wifiAddress)) {
-                                    found = true;
-                                    break;
-                                }
-                            }
-
-                            if (found) {
-                                // interface found let's put addresses
-                                // to the result object
-                                as = networkInterface.getInetAddresses();
-                                while (as.hasMoreElements()) {
-                                    InetAddress a = as.nextElement();
-                                    if (a.isLinkLocalAddress())
-                                        continue;
-
-                                    addresses.put(a.getHostAddress());
-                                }
-                            }
-
-                        }
-                    } catch (SocketException e) {
-                        JitsiMeetLogger.e(e, TAG + " Unable to NetworkInterface.getNetworkInterfaces()");
-                    }
+                    // The JSON string is what lib-jitsi-meet expects.
+                    result.put(
+                        "addresses",
+                        new JSONArray(getWiFiAddresses(wifiInfo.getIpAddress())));
+                    String json = result.toString();
 
-                    result.put("addresses", addresses);
-                    promise.resolve(result.toString());
+                    promise.resolve(json);
 
-                    JitsiMeetLogger.d(TAG + " WiFi stats: " + result.toString());
+                    JitsiMeetLogger.d(TAG + " WiFi stats: " + json);
                 } catch (Throwable e) {
                     JitsiMeetLogger.e(e, TAG + " Failed to obtain wifi stats");
                     promise.reject(
@@ -200,4 +523,16 @@ class WiFiStatsModule
         };
         executor.execute(r);
     }
+
+    /**
+     * Native listener of the WiFi link samples.
+     */
+    interface SampleListener {
+        /**
+         * Called for every sample of the connected WiFi link.
+         *
+         * @param stats - The statistics of the recent samples.
+         */
+        void onWiFiSample(WiFiLinkSampler.Stats stats);
+    }
 }
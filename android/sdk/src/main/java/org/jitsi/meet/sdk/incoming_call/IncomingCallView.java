@@ -25,18 +25,33 @@ import com.facebook.react.bridge.ReadableMap;
 import org.jitsi.meet.sdk.BaseReactView;
 import org.jitsi.meet.sdk.ListenerUtils;
 
-import java.lang.reflect.Method;
 import java.util.Map;
 
 public class IncomingCallView
     extends BaseReactView<IncomingCallViewListener> {
 
     /**
-     * The {@code Method}s of {@code JitsiMeetViewListener} by event name i.e.
+     * Calls the methods of {@code IncomingCallViewListener} by event name i.e.
      * redux action types.
      */
-    private static final Map<String, Method> LISTENER_METHODS
-        = ListenerUtils.mapListenerMethods(IncomingCallViewListener.class);
+    private static final ListenerUtils.ListenerDispatcher<IncomingCallViewListener> LISTENER_DISPATCHER
+        = new ListenerUtils.ListenerDispatcher<IncomingCallViewListener>(
+                IncomingCallViewListener.class, null) {
+            @Override
+            protected void dispatch(
+                    IncomingCallViewListener listener,
+                    String eventName,
+                    Map<String, Object> data) {
+                switch (eventName) {
+                    case "INCOMING_CALL_ANSWERED":
+                        listener.onIncomingCallAnswered(data);
+                        break;
+                    case "INCOMING_CALL_DECLINED":
+                        listener.onIncomingCallDeclined(data);
+                        break;
+                }
+            }
+        };
 
     public IncomingCallView(@NonNull Context context) {
         super(context);
@@ -51,7 +66,7 @@ public class IncomingCallView
      */
     @Override
     protected void onExternalAPIEvent(String name, ReadableMap data) {
-        onExternalAPIEvent(LISTENER_METHODS, name, data);
+        onExternalAPIEvent(LISTENER_DISPATCHER, name, data);
     }
 
     /**
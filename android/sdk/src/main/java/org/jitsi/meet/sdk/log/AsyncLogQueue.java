@@ -0,0 +1,280 @@
+/*
+ * Copyright © 2020. cabi LLC. All rights reserved.
+ */
+
+package org.jitsi.meet.sdk.log;
+
+import android.util.Log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import timber.log.Timber;
+
+/**
+ * Bounded, lock-free multi-producer / single-consumer queue of log records,
+ * drained by a background thread which formats the records and hands them to
+ * Timber, i.e. to the {@link JitsiMeetBaseLogHandler}s.
+ *
+ * The records are pre-allocated and reused, enqueueing doesn't allocate.
+ * When the queue is full the record is dropped and counted, producers never
+ * block.
+ */
+class AsyncLogQueue {
+    /**
+     * The number of records, must be a power of 2.
+     */
+    private static final int CAPACITY = 1024;
+
+    private static final int MASK = CAPACITY - 1;
+
+    /**
+     * The maximum time the consumer sleeps when there's nothing to do, in
+     * nanoseconds. Bounds the latency of a missed wake up.
+     */
+    private static final long MAX_PARK_NANOS = 100 * 1000 * 1000;
+
+    /**
+     * The records. Slot {@code i} is owned by producers when
+     * {@code sequences[i] == position} and by the consumer when
+     * {@code sequences[i] == position + 1}.
+     */
+    private final Record[] records = new Record[CAPACITY];
+
+    private final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+
+    /**
+     * The position the next record is to be written at.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * The position the next record is to be read from. Written by the
+     * consumer only.
+     */
+    private volatile long head;
+
+    /**
+     * The number of records dropped because the queue was full.
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * The number of dropped records which were reported in the log already.
+     * Accessed by the consumer only.
+     */
+    private long droppedReported;
+
+    /**
+     * Whether the consumer is (about to be) parked.
+     */
+    private volatile boolean consumerParked;
+
+    /**
+     * Whether {@link #shutdown(long)} was called.
+     */
+    private volatile boolean stopped;
+
+    private final Thread consumer;
+
+    AsyncLogQueue() {
+        for (int i = 0; i < CAPACITY; i++) {
+            records[i] = new Record();
+            sequences.set(i, i);
+        }
+
+        consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                consume();
+            }
+        }, "JitsiMeetLogger");
+        consumer.setDaemon(true);
+        consumer.setPriority(Thread.MIN_PRIORITY);
+        consumer.start();
+    }
+
+    /**
+     * Enqueues a log record.
+     *
+     * @return {@code false} if the record was dropped because the queue is
+     * full.
+     */
+    boolean offer(int priority, Throwable t, String message, Object[] args) {
+        if (stopped) {
+            // The consumer is gone or going, log on the caller's thread.
+            log(priority, t, message, args);
+            return true;
+        }
+
+        long position;
+        int index;
+
+        while (true) {
+            position = tail.get();
+            index = (int) position & MASK;
+
+            long sequence = sequences.get(index);
+
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (sequence < position) {
+                // The consumer hasn't freed the slot yet.
+                dropped.incrementAndGet();
+                return false;
+            }
+            // Else another producer took the slot, try the next one.
+        }
+
+        Record record = records[index];
+
+        record.priority = priority;
+        record.t = t;
+        record.message = message;
+        record.args = args;
+
+        sequences.lazySet(index, position + 1);
+
+        if (consumerParked) {
+            LockSupport.unpark(consumer);
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the number of records dropped so far.
+     */
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Waits until the records enqueued so far have been logged.
+     *
+     * @param timeoutMillis - The maximum time to wait.
+     */
+    void flush(long timeoutMillis) {
+        long target = tail.get();
+        long deadline = System.nanoTime() + timeoutMillis * 1000000;
+
+        while (head < target && System.nanoTime() < deadline) {
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(1000000);
+        }
+    }
+
+    /**
+     * Logs the queued records and stops the consumer. The records offered
+     * afterwards are logged on the caller's thread.
+     *
+     * @param timeoutMillis - The maximum time to wait for the consumer.
+     */
+    void shutdown(long timeoutMillis) {
+        stopped = true;
+        LockSupport.unpark(consumer);
+
+        try {
+            consumer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!consumer.isAlive()) {
+            // Records offered while the consumer was exiting. This thread is
+            // the only consumer now.
+            drain();
+        }
+    }
+
+    private void consume() {
+        while (true) {
+            if (!drain()) {
+                if (stopped) {
+                    return;
+                }
+
+                consumerParked = true;
+                // Check again, a producer may have missed the flag.
+                if (!drain()) {
+                    LockSupport.parkNanos(this, MAX_PARK_NANOS);
+                }
+                consumerParked = false;
+            }
+        }
+    }
+
+    /**
+     * Logs all the available records.
+     *
+     * @return {@code true} if there were any.
+     */
+    private boolean drain() {
+        boolean drained = false;
+
+        while (true) {
+            long position = head;
+            int index = (int) position & MASK;
+
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+
+            Record record = records[index];
+            int priority = record.priority;
+            Throwable t = record.t;
+            String message = record.message;
+            Object[] args = record.args;
+
+            record.clear();
+            sequences.lazySet(index, position + CAPACITY);
+            drained = true;
+
+            log(priority, t, message, args);
+
+            // Only now, so flush() doesn't return before the record is logged.
+            head = position + 1;
+        }
+
+        long dropped = this.dropped.get();
+
+        if (dropped != droppedReported) {
+            log(Log.WARN,
+                null,
+                "JitsiMeetLogger dropped %d log messages",
+                new Object[] { dropped - droppedReported });
+            droppedReported = dropped;
+        }
+
+        return drained;
+    }
+
+    private static void log(int priority, Throwable t, String message, Object[] args) {
+        try {
+            Timber.log(priority, t, message, args);
+        } catch (Throwable tr) {
+            // A bad format string or a failing handler must not kill the
+            // consumer.
+            Log.w("JitsiMeetSDK", "Failed to log: " + message, tr);
+        }
+    }
+
+    /**
+     * A log record, reused once logged.
+     */
+    private static class Record {
+        int priority;
+        Throwable t;
+        String message;
+        Object[] args;
+
+        void clear() {
+            t = null;
+            message = null;
+            args = null;
+        }
+    }
+}
@@ -16,13 +16,9 @@
 
 package org.jitsi.meet.sdk.log;
 
-import android.util.Log;
-
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.text.MessageFormat;
-
 import timber.log.Timber;
 
 /**
@@ -35,12 +31,9 @@ import timber.log.Timber;
 public abstract class JitsiMeetBaseLogHandler extends Timber.Tree {
     @Override
     protected void log(int priority, @Nullable String tag, @NotNull String msg, @Nullable Throwable t) {
-        String errmsg = Log.getStackTraceString(t);
-        if (errmsg.isEmpty()) {
-            doLog(priority, getDefaultTag(), msg);
-        } else {
-            doLog(priority, getDefaultTag(), MessageFormat.format("{0}\n{1}", msg, errmsg));
-        }
+        // Timber has already formatted msg and appended the stack trace of t
+        // to it, if any.
+        doLog(priority, getDefaultTag(), msg);
     }
 
     protected abstract void doLog(int priority, @NotNull String tag, @NotNull String msg);
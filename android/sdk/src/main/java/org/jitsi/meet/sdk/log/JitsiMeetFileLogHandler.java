@@ -0,0 +1,406 @@
+/*
+ * Copyright © 2020. cabi LLC. All rights reserved.
+ */
+
+package org.jitsi.meet.sdk.log;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * {@link JitsiMeetBaseLogHandler} which persists the logs on the device, so
+ * they survive crashes and can be exported for support tickets.
+ *
+ * The logs are appended to a ring of memory-mapped segment files, in a
+ * compact binary format. Messages are encoded straight into the mapped memory
+ * and the kernel writes it back to the files, so logging neither does file
+ * I/O on the caller's thread nor syncs on every line, and the logs written
+ * before the process dies are not lost. When the current segment is full, the
+ * oldest one is cleared and reused, capping the disk usage at
+ * {@code segmentSize * segmentCount}.
+ *
+ * Segment layout: a header (magic, version, sequence number of the segment)
+ * followed by records. Record layout: length of the rest of the record (int),
+ * timestamp in milliseconds (long), priority (byte) and the UTF-8 message.
+ * A zero length marks the end of the records.
+ */
+public class JitsiMeetFileLogHandler extends JitsiMeetBaseLogHandler {
+    private static final String TAG = "JitsiMeetSDK";
+
+    private static final int DEFAULT_SEGMENT_SIZE = 1024 * 1024;
+
+    private static final int DEFAULT_SEGMENT_COUNT = 4;
+
+    private static final int MAGIC = 0x4A4D4C47; // JMLG
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 4 + 4 + 8;
+
+    /**
+     * The size of the fixed part of a record after its length: timestamp and
+     * priority.
+     */
+    private static final int RECORD_FIXED_SIZE = 8 + 1;
+
+    private static final String PRIORITIES = "??VDIWEA";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * The sequence number of each segment, increasing as segments are (re)used.
+     */
+    private final long[] sequences;
+
+    /**
+     * Encodes the messages straight into the mapped segments.
+     */
+    private final CharsetEncoder encoder
+        = UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    /**
+     * The index of the segment being written.
+     */
+    private int current;
+
+    private boolean closed;
+
+    /**
+     * Initializes a new handler keeping up to 4 MiB of logs in a specific
+     * directory.
+     *
+     * @param directory - The directory of the segment files, created if
+     * needed.
+     * @throws IOException if the segment files can't be created or mapped.
+     */
+    public JitsiMeetFileLogHandler(File directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_SEGMENT_COUNT);
+    }
+
+    /**
+     * Initializes a new handler. Logs written by a previous handler using the
+     * same directory and sizes are kept and appended to.
+     *
+     * @param directory - The directory of the segment files, created if
+     * needed.
+     * @param segmentSize - The size of a segment file, in bytes.
+     * @param segmentCount - The number of segment files, at least 2.
+     * @throws IOException if the segment files can't be created or mapped.
+     */
+    public JitsiMeetFileLogHandler(File directory, int segmentSize, int segmentCount)
+            throws IOException {
+        if (segmentSize <= HEADER_SIZE + 4 + RECORD_FIXED_SIZE || segmentCount < 2) {
+            throw new IllegalArgumentException("Invalid segment size or count");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+
+        segments = new MappedByteBuffer[segmentCount];
+        sequences = new long[segmentCount];
+
+        for (int i = 0; i < segmentCount; i++) {
+            RandomAccessFile file
+                = new RandomAccessFile(new File(directory, "jitsi-meet-" + i + ".log"), "rw");
+
+            try {
+                segments[i]
+                    = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            } finally {
+                // The mapping stays valid.
+                file.close();
+            }
+
+            MappedByteBuffer segment = segments[i];
+
+            if (segment.getInt(0) == MAGIC && segment.getInt(4) == VERSION) {
+                sequences[i] = segment.getLong(8);
+            } else {
+                sequences[i] = -1;
+            }
+        }
+
+        // Resume after the last record of the most recent segment.
+        long newest = -1;
+
+        for (int i = 0; i < segmentCount; i++) {
+            if (sequences[i] > newest) {
+                newest = sequences[i];
+                current = i;
+            }
+        }
+
+        if (newest == -1) {
+            reset(current, 0);
+        } else {
+            segments[current].position(findEnd(segments[current]));
+        }
+    }
+
+    @Override
+    protected synchronized void doLog(int priority, @NotNull String tag, @NotNull String msg) {
+        if (closed) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+
+        if (!append(segments[current], now, priority, msg, false)) {
+            int next = (current + 1) % segments.length;
+
+            reset(next, sequences[current] + 1);
+            current = next;
+
+            // A message which doesn't fit an empty segment gets truncated.
+            append(segments[current], now, priority, msg, true);
+        }
+    }
+
+    @Override
+    protected String getDefaultTag() {
+        return TAG;
+    }
+
+    /**
+     * Appends a record to a segment.
+     *
+     * @param truncate - Whether to write as much of the message as fits rather
+     * than nothing when it doesn't fit.
+     * @return {@code false} if nothing was written because the record doesn't
+     * fit.
+     */
+    private boolean append(
+            MappedByteBuffer segment,
+            long timestamp,
+            int priority,
+            String msg,
+            boolean truncate) {
+        int start = segment.position();
+
+        if (segment.remaining() < 4 + RECORD_FIXED_SIZE + 4) {
+            return false;
+        }
+
+        // Keep room for the terminating zero length.
+        segment.limit(segment.capacity() - 4);
+        segment.position(start + 4);
+        segment.putLong(timestamp);
+        segment.put((byte) priority);
+
+        encoder.reset();
+
+        boolean overflow
+            = encoder.encode(CharBuffer.wrap(msg), segment, true).isOverflow()
+                || encoder.flush(segment).isOverflow();
+
+        segment.limit(segment.capacity());
+
+        if (overflow && !truncate) {
+            // Undo. The length at start is still zero, so the bytes written
+            // past it are never read.
+            segment.position(start);
+            return false;
+        }
+
+        int end = segment.position();
+
+        segment.putInt(end, 0);
+
+        // Written last, so a record is complete once it's visible.
+        segment.putInt(start, end - start - 4);
+
+        return true;
+    }
+
+    /**
+     * Clears a segment and makes it the segment with a specific sequence
+     * number. Only the first length is zeroed: the records are read up to the
+     * first invalid length, and every append zeroes the length after its
+     * record, so the old records past it are never read.
+     */
+    private void reset(int index, long sequence) {
+        MappedByteBuffer segment = segments[index];
+
+        segment.clear();
+
+        // Before the header, so the old records are never taken for the ones
+        // of the new sequence.
+        segment.putInt(HEADER_SIZE, 0);
+        segment.putInt(0, MAGIC);
+        segment.putInt(4, VERSION);
+        segment.putLong(8, sequence);
+        segment.position(HEADER_SIZE);
+        sequences[index] = sequence;
+    }
+
+    /**
+     * Finds the position after the last complete record of a segment.
+     */
+    private static int findEnd(ByteBuffer segment) {
+        int position = HEADER_SIZE;
+
+        while (position + 4 <= segment.capacity()) {
+            int length = segment.getInt(position);
+
+            if (length < RECORD_FIXED_SIZE
+                    || length > segment.capacity() - position - 4) {
+                break;
+            }
+            position += 4 + length;
+        }
+
+        return position;
+    }
+
+    /**
+     * Forces the logs to be written to the files. Not needed for the logs to
+     * survive the process dying, only the device.
+     */
+    public synchronized void sync() {
+        if (!closed) {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+        }
+    }
+
+    /**
+     * Stops logging to the files. Meant to be called after the handler was
+     * removed with {@link JitsiMeetLogger#removeHandler}.
+     */
+    public synchronized void close() {
+        sync();
+        closed = true;
+    }
+
+    /**
+     * Exports the logs of the last minutes as text, one line per record.
+     *
+     * @param minutes - How many minutes of logs to export.
+     * @param file - The file to write, overwritten if it exists.
+     * @throws IOException if writing the file fails.
+     */
+    public void exportLastMinutes(int minutes, File file) throws IOException {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), UTF_8);
+
+        try {
+            export(System.currentTimeMillis() - minutes * 60000L, writer);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Exports the logs written since a specific time as text, one line per
+     * record, oldest first.
+     *
+     * @param sinceMillis - The time of the oldest record to export, in
+     * milliseconds since the epoch.
+     * @param writer - Where to write the logs to.
+     * @throws IOException if writing fails.
+     */
+    public void export(long sinceMillis, Writer writer) throws IOException {
+        // Copied out, so logging isn't blocked while the writer is written.
+        List<ByteBuffer> records = copyRecords(sinceMillis);
+        SimpleDateFormat dateFormat
+            = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+        Date date = new Date();
+
+        for (ByteBuffer segment : records) {
+            int end = segment.limit();
+            int position = 0;
+
+            while (position < end) {
+                int length = segment.getInt(position);
+                long timestamp = segment.getLong(position + 4);
+
+                if (timestamp >= sinceMillis) {
+                    int priority = segment.get(position + 12);
+                    int messageOffset = position + 4 + RECORD_FIXED_SIZE;
+                    byte[] message = new byte[length - RECORD_FIXED_SIZE];
+
+                    segment.position(messageOffset);
+                    segment.get(message);
+                    date.setTime(timestamp);
+
+                    writer.write(dateFormat.format(date));
+                    writer.write(' ');
+                    writer.write(
+                        priority >= 0 && priority < PRIORITIES.length()
+                            ? PRIORITIES.charAt(priority)
+                            : '?');
+                    writer.write(' ');
+                    writer.write(new String(message, UTF_8));
+                    writer.write('\n');
+                }
+
+                position += 4 + length;
+            }
+        }
+
+        writer.flush();
+    }
+
+    /**
+     * Copies the records of the segments, from the first one written since a
+     * specific time.
+     *
+     * @return The records of each segment, oldest segment first.
+     */
+    private synchronized List<ByteBuffer> copyRecords(long sinceMillis) {
+        List<ByteBuffer> records = new ArrayList<>();
+
+        if (closed) {
+            return records;
+        }
+
+        // Oldest segment first: the one after the current one in the ring.
+        for (int i = 1; i <= segments.length; i++) {
+            int index = (current + i) % segments.length;
+
+            if (sequences[index] == -1) {
+                continue;
+            }
+
+            ByteBuffer segment = segments[index].duplicate();
+            int end = findEnd(segment);
+            int start = HEADER_SIZE;
+
+            while (start < end && segment.getLong(start + 4) < sinceMillis) {
+                start += 4 + segment.getInt(start);
+            }
+
+            if (start < end) {
+                byte[] copy = new byte[end - start];
+
+                segment.position(start);
+                segment.get(copy);
+                records.add(ByteBuffer.wrap(copy));
+            }
+        }
+
+        return records;
+    }
+}
@@ -16,9 +16,36 @@
 
 package org.jitsi.meet.sdk.log;
 
+import android.util.Log;
+
 import timber.log.Timber;
 
 public class JitsiMeetLogger {
+    private static final Object[] NO_ARGS = new Object[0];
+
+    /**
+     * The maximum time {@link #flush()} waits for queued logs, in
+     * milliseconds.
+     */
+    private static final long FLUSH_TIMEOUT_MS = 500;
+
+    /**
+     * The lowest priority which gets logged, see {@link #setMinPriority(int)}.
+     */
+    private static volatile int minPriority = Log.VERBOSE;
+
+    /**
+     * The queue logs go through in asynchronous mode, {@code null} in
+     * synchronous mode. See {@link #setAsync(boolean)}.
+     */
+    private static volatile AsyncLogQueue asyncQueue;
+
+    /**
+     * The number of logs dropped by the queues of the previous asynchronous
+     * modes.
+     */
+    private static volatile long droppedCountBefore;
+
     static {
         addHandler(new JitsiMeetDefaultLogHandler());
     }
@@ -44,64 +71,163 @@ public class JitsiMeetLogger {
         }
     }
 
+    /**
+     * Sets the lowest priority (see {@link Log}) which gets logged. Logs with
+     * lower priorities are discarded before any formatting takes place.
+     *
+     * @param priority - The priority, {@link Log#VERBOSE} by default.
+     */
+    public static void setMinPriority(int priority) {
+        minPriority = priority;
+    }
+
+    /**
+     * Checks whether logs of a specific priority get logged, see
+     * {@link #setMinPriority(int)}.
+     *
+     * @param priority - The priority (see {@link Log}) to check.
+     * @return {@code true} if logs with {@code priority} get logged.
+     */
+    public static boolean isLoggable(int priority) {
+        return priority >= minPriority;
+    }
+
+    /**
+     * Gets the lowest priority which gets logged.
+     */
+    public static int getMinPriority() {
+        return minPriority;
+    }
+
+    /**
+     * Enables or disables the asynchronous mode. In asynchronous mode logs are
+     * queued and formatted and handed to the handlers on a background thread,
+     * so logging costs the caller next to nothing. If the queue is full the
+     * logs are dropped, see {@link #getDroppedCount()}. Disabled by default.
+     *
+     * @param async - Whether to log asynchronously.
+     */
+    public static synchronized void setAsync(boolean async) {
+        if (async) {
+            if (asyncQueue == null) {
+                asyncQueue = new AsyncLogQueue();
+            }
+        } else if (asyncQueue != null) {
+            AsyncLogQueue queue = asyncQueue;
+
+            asyncQueue = null;
+            queue.shutdown(FLUSH_TIMEOUT_MS);
+            droppedCountBefore += queue.getDroppedCount();
+        }
+    }
+
+    /**
+     * Gets the number of logs dropped in asynchronous mode because they were
+     * logged faster than they could be handled, over all the times the mode
+     * was enabled.
+     */
+    public static long getDroppedCount() {
+        AsyncLogQueue queue = asyncQueue;
+
+        return droppedCountBefore + (queue != null ? queue.getDroppedCount() : 0);
+    }
+
+    /**
+     * Waits (for a limited time) until the logs queued in asynchronous mode
+     * have been handled, e.g. before the process dies.
+     */
+    public static void flush() {
+        AsyncLogQueue queue = asyncQueue;
+
+        if (queue != null) {
+            queue.flush(FLUSH_TIMEOUT_MS);
+        }
+    }
+
+    /**
+     * Logs a message with a specific priority (see {@link Log}). The message
+     * is not formatted.
+     */
+    public static void log(int priority, String message) {
+        log(priority, null, message, null);
+    }
+
+    private static void log(int priority, Throwable t, String message, Object[] args) {
+        if (priority < minPriority) {
+            return;
+        }
+
+        if (args == null) {
+            args = NO_ARGS;
+        }
+
+        AsyncLogQueue queue = asyncQueue;
+
+        if (queue != null) {
+            queue.offer(priority, t, message, args);
+        } else {
+            Timber.log(priority, t, message, args);
+        }
+    }
+
     public static void v(String message, Object... args) {
-        Timber.v(message, args);
+        log(Log.VERBOSE, null, message, args);
     }
 
     public static void v(Throwable t, String message, Object... args) {
-        Timber.v(t, message, args);
+        log(Log.VERBOSE, t, message, args);
     }
 
     public static void v(Throwable t) {
-        Timber.v(t);
+        log(Log.VERBOSE, t, null, null);
     }
 
     public static void d(String message, Object... args) {
-        Timber.d(message, args);
+        log(Log.DEBUG, null, message, args);
     }
 
     public static void d(Throwable t, String message, Object... args) {
-        Timber.d(t, message, args);
+        log(Log.DEBUG, t, message, args);
     }
 
     public static void d(Throwable t) {
-        Timber.d(t);
+        log(Log.DEBUG, t, null, null);
     }
 
     public static void i(String message, Object... args) {
-        Timber.i(message, args);
+        log(Log.INFO, null, message, args);
     }
 
     public static void i(Throwable t, String message, Object... args) {
-        Timber.i(t, message, args);
+        log(Log.INFO, t, message, args);
     }
 
     public static void i(Throwable t) {
-        Timber.i(t);
+        log(Log.INFO, t, null, null);
     }
 
     public static void w(String message, Object... args) {
-        Timber.w(message, args);
+        log(Log.WARN, null, message, args);
     }
 
     public static void w(Throwable t, String message, Object... args) {
-        Timber.w(t, message, args);
+        log(Log.WARN, t, message, args);
     }
 
     public static void w(Throwable t) {
-        Timber.w(t);
+        log(Log.WARN, t, null, null);
     }
 
     public static void e(String message, Object... args) {
-        Timber.e(message, args);
+        log(Log.ERROR, null, message, args);
     }
 
     public static void e(Throwable t, String message, Object... args) {
-        Timber.e(t, message, args);
+        log(Log.ERROR, t, message, args);
     }
 
     public static void e(Throwable t) {
-        Timber.e(t);
+        log(Log.ERROR, t, null, null);
     }
 
 }
@@ -17,6 +17,7 @@ package org.jitsi.meet.sdk.net;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.Arrays;
 
 /**
  * Constructs IPv6 addresses for IPv4 addresses in the NAT64 environment.
@@ -26,8 +27,45 @@ import java.net.UnknownHostException;
  * both IPv6 and IPv4 addresses of a host and then trying to find a place where
  * the IPv4 address fits into the format described here:
  * https://tools.ietf.org/html/rfc6052#section-2.2
+ *
+ * The addresses are handled as bytes: the IPv4 bytes are written into a copy
+ * of the discovered IPv6 address, which is then formatted straight into a
+ * reusable per thread buffer.
  */
 public class NAT64AddrInfo {
+    /**
+     * The upper case hex digits.
+     */
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * The supported prefix lengths, in the order they are tried.
+     */
+    private static final int[] PREFIX_LENGTHS = { 96, 64, 56, 48, 40, 32 };
+
+    /**
+     * The index of the 'u' octet, which is always zero in a NAT64 address
+     * with a prefix length below 96.
+     */
+    private static final int U_OCTET = 8;
+
+    /**
+     * The length of an IPv6 address string: 8 groups of 4 hex digits and the
+     * separators.
+     */
+    private static final int IPV6_STRING_LENGTH = 8 * 4 + 7;
+
+    /**
+     * The buffers IPv6 address strings are formatted into.
+     */
+    private static final ThreadLocal<char[]> IPV6_STRING_BUFFER
+        = new ThreadLocal<char[]>() {
+            @Override
+            protected char[] initialValue() {
+                return new char[IPV6_STRING_LENGTH];
+            }
+        };
+
     /**
      * Coverts bytes array to upper case HEX string.
      *
@@ -35,13 +73,14 @@ public class NAT64AddrInfo {
      * @return ex. "010AFF" for an array of {1, 10, 255}.
      */
     static String bytesToHexString(byte[] bytes) {
-        StringBuilder hexStr = new StringBuilder();
+        char[] hexStr = new char[bytes.length * 2];
 
-        for (byte b : bytes) {
-            hexStr.append(String.format("%02X", b));
+        for (int i = 0; i < bytes.length; i++) {
+            hexStr[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            hexStr[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
         }
 
-        return hexStr.toString();
+        return new String(hexStr);
     }
 
     /**
@@ -91,8 +130,9 @@ public class NAT64AddrInfo {
     static NAT64AddrInfo figureOutNAT64AddrInfo(
             byte[] ipv4AddrBytes,
             byte[] ipv6AddrBytes) {
-        String ipv6Str = bytesToHexString(ipv6AddrBytes);
-        String ipv4Str = bytesToHexString(ipv4AddrBytes);
+        if (ipv4AddrBytes.length != 4 || ipv6AddrBytes.length != 16) {
+            return null;
+        }
 
         // NAT64 address format:
         // +--+---+---+---+---+---+---+---+---+---+---+---+---+---+---+---+---+
@@ -110,57 +150,54 @@ public class NAT64AddrInfo {
         // +--+---+---+---+---+---+---+---+---+---+---+---+---+---+---+---+---+
         // |96|     prefix                                    |    v4(32)     |
         // +--+---+---+---+---+---+---+---+---+---+---+---+---+---+---+---+---+
-        int prefixLength = 96;
-        int suffixLength = 0;
-        String prefix = null;
-        String suffix = null;
-
-        if (ipv4Str.equalsIgnoreCase(ipv6Str.substring(prefixLength / 4))) {
-            prefix = ipv6Str.substring(0, prefixLength / 4);
-        } else {
-            // Cut out the 'u' octet
-            ipv6Str = ipv6Str.substring(0, 16) + ipv6Str.substring(18);
-
-            for (prefixLength = 64, suffixLength = 6; prefixLength >= 32; ) {
-                if (ipv4Str.equalsIgnoreCase(
-                        ipv6Str.substring(
-                                prefixLength / 4, prefixLength / 4 + 8))) {
-                    prefix = ipv6Str.substring(0, prefixLength / 4);
-                    suffix = ipv6Str.substring(ipv6Str.length() - suffixLength);
-                    break;
-                }
+        for (int prefixLength : PREFIX_LENGTHS) {
+            boolean match = true;
+
+            for (int i = 0; match && i < 4; i++) {
+                match = ipv6AddrBytes[ipv4ByteIndex(prefixLength, i)] == ipv4AddrBytes[i];
+            }
 
-                prefixLength -= 8;
-                suffixLength += 2;
+            if (match) {
+                return new NAT64AddrInfo(ipv6AddrBytes.clone(), prefixLength);
             }
         }
 
-        return prefix != null ? new NAT64AddrInfo(prefix, suffix) : null;
+        return null;
     }
 
     /**
-     * An overload for {@link #hexStringToIPv6String(StringBuilder)}.
+     * Gets the index in a NAT64 IPv6 address of a byte of the IPv4 address.
      *
-     * @param hexStr a hex representation of IPv6 address bytes.
-     * @return an IPv6 address string.
+     * @param prefixLength the NAT64 prefix length, in bits.
+     * @param i the index of the IPv4 address byte.
+     * @return the index of the IPv6 address byte.
      */
-    static String hexStringToIPv6String(String hexStr) {
-        return hexStringToIPv6String(new StringBuilder(hexStr));
+    private static int ipv4ByteIndex(int prefixLength, int i) {
+        int index = prefixLength / 8 + i;
+
+        // Skip the 'u' octet.
+        return prefixLength < 96 && index >= U_OCTET ? index + 1 : index;
     }
 
     /**
      * Converts from HEX representation of IPv6 address bytes into IPv6 address
      * string which includes the ':' signs.
      *
-     * @param str a hex representation of IPv6 address bytes.
+     * @param hexStr a hex representation of IPv6 address bytes.
      * @return eg. FE80:CD00:0000:0CDA:1357:0000:212F:749C
      */
-    static String hexStringToIPv6String(StringBuilder str) {
-        for (int i = 32 - 4; i > 0; i -= 4) {
-            str.insert(i, ":");
+    static String hexStringToIPv6String(String hexStr) {
+        int length = hexStr.length();
+        char[] str = new char[length + (length - 1) / 4];
+
+        for (int i = 0, j = 0; i < length; i++) {
+            if (i > 0 && i % 4 == 0) {
+                str[j++] = ':';
+            }
+            str[j++] = Character.toUpperCase(hexStr.charAt(i));
         }
 
-        return str.toString().toUpperCase();
+        return new String(str);
     }
 
     /**
@@ -171,44 +208,89 @@ public class NAT64AddrInfo {
      * @throws IllegalArgumentException if the address is not in valid format.
      */
     static byte[] ipv4AddressStringToBytes(String ipv4Address) {
-        InetAddress address;
+        int address = parseIPv4Address(ipv4Address);
 
-        try {
-            address = InetAddress.getByName(ipv4Address);
-        } catch (UnknownHostException e) {
-            throw new IllegalArgumentException(
-                    "Invalid IP address: " + ipv4Address, e);
-        }
+        return new byte[] {
+            (byte) (address >>> 24),
+            (byte) (address >>> 16),
+            (byte) (address >>> 8),
+            (byte) address
+        };
+    }
 
-        byte[] bytes = address.getAddress();
+    /**
+     * Parses an IPv4 address string in the dotted decimal format, without any
+     * name resolution.
+     *
+     * @param ipv4Address eg. '192.168.3.23'
+     * @return the address, most significant byte first.
+     * @throws IllegalArgumentException if the address is not in valid format.
+     */
+    private static int parseIPv4Address(String ipv4Address) {
+        int length = ipv4Address.length();
+        int address = 0;
+        int part = 0;
+        int value = 0;
+        int digits = 0;
+
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? ipv4Address.charAt(i) : '.';
+
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                if (++digits > 3 || value > 255) {
+                    throw new IllegalArgumentException(
+                            "Invalid IP address: " + ipv4Address);
+                }
+            } else if (c == '.' && digits > 0 && part < 4) {
+                address = (address << 8) | value;
+                part++;
+                value = 0;
+                digits = 0;
+            } else {
+                throw new IllegalArgumentException(
+                        "Not an IPv4 address: " + ipv4Address);
+            }
+        }
 
-        if (bytes.length != 4) {
+        if (part != 4) {
             throw new IllegalArgumentException(
                     "Not an IPv4 address: " + ipv4Address);
         }
 
-        return bytes;
+        return address;
     }
 
     /**
-     * The NAT64 prefix added to construct IPv6 from an IPv4 address.
+     * The IPv6 address the NAT64 prefix/suffix were discovered from. The IPv4
+     * bytes are written over it to construct an IPv6 address.
      */
-    private final String prefix;
+    private final byte[] template;
 
     /**
-     * The NAT64 suffix (if any) used to construct IPv6 from an IPv4 address.
+     * For each byte of an IPv6 address, the index of the IPv4 address byte
+     * which goes there, or -1 if it's taken from {@link #template}.
      */
-    private final String suffix;
+    private final int[] ipv4Bytes = new int[16];
 
     /**
      * Creates new instance of {@link NAT64AddrInfo}.
      *
-     * @param prefix the NAT64 prefix.
-     * @param suffix the NAT64 suffix.
+     * @param template the IPv6 address the NAT64 prefix/suffix were
+     * discovered from.
+     * @param prefixLength the NAT64 prefix length.
      */
-    private NAT64AddrInfo(String prefix, String suffix) {
-        this.prefix = prefix;
-        this.suffix = suffix;
+    private NAT64AddrInfo(byte[] template, int prefixLength) {
+        this.template = template;
+
+        if (prefixLength < 96) {
+            template[U_OCTET] = 0;
+        }
+
+        Arrays.fill(ipv4Bytes, -1);
+        for (int i = 0; i < 4; i++) {
+            ipv4Bytes[ipv4ByteIndex(prefixLength, i)] = i;
+        }
     }
 
     /**
@@ -221,18 +303,23 @@ public class NAT64AddrInfo {
      * address.
      */
     public String getIPv6Address(String ipv4Address) {
-        byte[] ipv4AddressBytes = ipv4AddressStringToBytes(ipv4Address);
-        StringBuilder newIPv6Str = new StringBuilder();
+        int ipv4 = parseIPv4Address(ipv4Address);
+        char[] str = IPV6_STRING_BUFFER.get();
 
-        newIPv6Str.append(prefix);
-        newIPv6Str.append(bytesToHexString(ipv4AddressBytes));
+        for (int i = 0, j = 0; i < 16; i++) {
+            int ipv4Byte = ipv4Bytes[i];
+            int b
+                = ipv4Byte == -1
+                    ? template[i]
+                    : ipv4 >>> (8 * (3 - ipv4Byte));
 
-        if (suffix != null) {
-            // Insert the 'u' octet.
-            newIPv6Str.insert(16, "00");
-            newIPv6Str.append(suffix);
+            if (i > 0 && i % 2 == 0) {
+                str[j++] = ':';
+            }
+            str[j++] = HEX_DIGITS[(b >> 4) & 0xF];
+            str[j++] = HEX_DIGITS[b & 0xF];
         }
 
-        return hexStringToIPv6String(newIPv6Str);
+        return new String(str, 0, IPV6_STRING_LENGTH);
     }
 }
@@ -15,6 +15,12 @@
  */
 package org.jitsi.meet.sdk.net;
 
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.LinkProperties;
+import android.net.Network;
+import android.util.LruCache;
+
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
@@ -24,6 +30,11 @@ import com.facebook.react.module.annotations.ReactModule;
 import org.jitsi.meet.sdk.log.JitsiMeetLogger;
 
 import java.net.UnknownHostException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This module exposes the functionality of creating an IPv6 representation
@@ -32,6 +43,12 @@ import java.net.UnknownHostException;
  * See[1] and [2] for more info on what NAT64 is.
  * [1]: https://tools.ietf.org/html/rfc6146
  * [2]: https://tools.ietf.org/html/rfc6052
+ *
+ * The NAT64 prefix is discovered on a background thread, never on the React
+ * Native modules thread. Concurrent requests share a single discovery, which
+ * is started ahead of time when the network changes and before the current
+ * {@link NAT64AddrInfo} expires if it's still in use. The IPv6 addresses are
+ * cached per IPv4 address until the {@link NAT64AddrInfo} changes.
  */
 @ReactModule(name = NAT64AddrInfoModule.NAME)
 public class NAT64AddrInfoModule
@@ -50,20 +67,108 @@ public class NAT64AddrInfoModule
      */
     private final static long INFO_LIFETIME = 60 * 1000;
 
+    /**
+     * How long after its discovery the {@link NAT64AddrInfo} is refreshed, if
+     * it was used meanwhile.
+     */
+    private final static long INFO_REFRESH = INFO_LIFETIME * 3 / 4;
+
+    /**
+     * The number of IPv6 addresses cached per {@link NAT64AddrInfo}.
+     */
+    private final static int ADDRESS_CACHE_SIZE = 256;
+
     /**
      * The {@code Log} tag {@code NAT64AddrInfoModule} is to log messages with.
      */
     private final static String TAG = NAME;
 
     /**
-     * The {@link NAT64AddrInfo} instance which holds NAT64 prefix/suffix.
+     * The executor running the discoveries and answering the requests which
+     * wait for them. Single threaded, so a request queued after a discovery
+     * is answered after it completes.
+     */
+    private final ScheduledExecutorService executor
+        = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, NAME);
+
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+    /**
+     * The result of the last discovery, {@code null} if there's none or it
+     * was invalidated.
+     */
+    private volatile Discovery discovery;
+
+    /**
+     * Whether a discovery is queued or running.
+     */
+    private final AtomicBoolean discovering = new AtomicBoolean();
+
+    /**
+     * Whether {@link #discovery} was used since it was discovered.
+     */
+    private volatile boolean discoveryUsed;
+
+    /**
+     * Starts a new discovery when the default network changes.
+     */
+    private final ConnectivityManager.NetworkCallback networkCallback
+        = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(Network network) {
+                onNetworkChange();
+            }
+
+            @Override
+            public void onLinkPropertiesChanged(Network network, LinkProperties linkProperties) {
+                onNetworkChange();
+            }
+        };
+
+    /**
+     * Discovers the {@link NAT64AddrInfo}. Runs on {@link #executor}.
      */
-    private NAT64AddrInfo info;
+    private final Runnable discoverRunnable = new Runnable() {
+        @Override
+        public void run() {
+            discovering.set(false);
+
+            NAT64AddrInfo info = null;
+            String host = HOST;
+
+            try {
+                info = NAT64AddrInfo.discover(host);
+            } catch (UnknownHostException e) {
+                JitsiMeetLogger.e(e, TAG + " NAT64AddrInfo.discover: " + host);
+            }
+
+            discovery = new Discovery(info, System.currentTimeMillis());
+            discoveryUsed = false;
+            executor.schedule(refreshRunnable, INFO_REFRESH, TimeUnit.MILLISECONDS);
+        }
+    };
 
     /**
-     * When {@link #info} was created.
+     * Rediscovers the {@link NAT64AddrInfo} before it expires, if it's in use.
      */
-    private long infoTimestamp;
+    private final Runnable refreshRunnable = new Runnable() {
+        @Override
+        public void run() {
+            Discovery discovery = NAT64AddrInfoModule.this.discovery;
+
+            if (discovery != null
+                    && discoveryUsed
+                    && System.currentTimeMillis() - discovery.timestamp >= INFO_REFRESH) {
+                discover();
+            }
+        }
+    };
 
     /**
      * Creates new {@link NAT64AddrInfoModule}.
@@ -75,6 +180,77 @@ public class NAT64AddrInfoModule
         super(reactContext);
     }
 
+    @Override
+    public void initialize() {
+        ConnectivityManager connectivityManager = getConnectivityManager();
+
+        if (connectivityManager != null) {
+            try {
+                connectivityManager.registerDefaultNetworkCallback(networkCallback);
+            } catch (RuntimeException e) {
+                JitsiMeetLogger.w(e, TAG + " Failed to register network callback");
+            }
+        }
+    }
+
+    @Override
+    public void onCatalystInstanceDestroy() {
+        ConnectivityManager connectivityManager = getConnectivityManager();
+
+        if (connectivityManager != null) {
+            try {
+                connectivityManager.unregisterNetworkCallback(networkCallback);
+            } catch (RuntimeException e) {
+                // Not registered.
+            }
+        }
+
+        executor.shutdownNow();
+    }
+
+    private ConnectivityManager getConnectivityManager() {
+        return (ConnectivityManager)
+            getReactApplicationContext().getSystemService(Context.CONNECTIVITY_SERVICE);
+    }
+
+    /**
+     * Invalidates the current {@link NAT64AddrInfo}, the new network may have
+     * another NAT64 prefix or none, and prefetches the new one.
+     */
+    private void onNetworkChange() {
+        JitsiMeetLogger.d(TAG + " Network changed, discovering NAT64 prefix");
+        discovery = null;
+        discover();
+    }
+
+    /**
+     * Queues a discovery, unless there's one queued or running already.
+     */
+    private void discover() {
+        if (discovering.compareAndSet(false, true)) {
+            try {
+                executor.execute(discoverRunnable);
+            } catch (RuntimeException e) {
+                // Rejected after onCatalystInstanceDestroy.
+                discovering.set(false);
+            }
+        }
+    }
+
+    /**
+     * Gets the current {@link Discovery} if it hasn't expired.
+     */
+    private Discovery getValidDiscovery() {
+        Discovery discovery = this.discovery;
+
+        if (discovery != null
+                && System.currentTimeMillis() - discovery.timestamp <= INFO_LIFETIME) {
+            return discovery;
+        }
+
+        return null;
+    }
+
     /**
      * Tries to obtain IPv6 address for given IPv4 address in NAT64 environment.
      *
@@ -85,39 +261,92 @@ public class NAT64AddrInfoModule
      * rejected if given {@code ipv4Address} is not a valid IPv4 address.
      */
     @ReactMethod
-    public void getIPv6Address(String ipv4Address, final Promise promise) {
-        // Reset if cached for too long.
-        if (System.currentTimeMillis() - infoTimestamp > INFO_LIFETIME) {
-            info = null;
+    public void getIPv6Address(final String ipv4Address, final Promise promise) {
+        Discovery discovery = getValidDiscovery();
+
+        if (discovery != null) {
+            promise.resolve(getIPv6Address(discovery, ipv4Address));
+            return;
         }
 
-        if (info == null) {
-            String host = HOST;
+        discover();
 
-            try {
-                info = NAT64AddrInfo.discover(host);
-            } catch (UnknownHostException e) {
-                JitsiMeetLogger.e(e, TAG + " NAT64AddrInfo.discover: " + host);
-            }
-            infoTimestamp = System.currentTimeMillis();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    // Queued after the discovery, so it's done by now. If it
+                    // failed to run, there's no NAT64 address.
+                    Discovery discovery = getValidDiscovery();
+
+                    promise.resolve(
+                        discovery == null ? null : getIPv6Address(discovery, ipv4Address));
+                }
+            });
+        } catch (RuntimeException e) {
+            promise.resolve(null);
         }
+    }
 
-        String result;
+    /**
+     * Gets the IPv6 address for an IPv4 address according to a specific
+     * {@link Discovery}.
+     *
+     * @return The IPv6 address, or {@code null}.
+     */
+    private String getIPv6Address(Discovery discovery, String ipv4Address) {
+        discoveryUsed = true;
 
-        try {
-            result = info == null ? null : info.getIPv6Address(ipv4Address);
-        } catch (IllegalArgumentException exc) {
-            JitsiMeetLogger.e(exc, TAG + " Failed to get IPv6 address for: " + ipv4Address);
+        if (discovery.info == null) {
+            return null;
+        }
 
-            // We don't want to reject. It's not a big deal if there's no IPv6
-            // address resolved.
-            result = null;
+        String result = discovery.addresses.get(ipv4Address);
+
+        if (result == null) {
+            try {
+                result = discovery.info.getIPv6Address(ipv4Address);
+                discovery.addresses.put(ipv4Address, result);
+            } catch (IllegalArgumentException exc) {
+                JitsiMeetLogger.e(exc, TAG + " Failed to get IPv6 address for: " + ipv4Address);
+
+                // We don't want to reject. It's not a big deal if there's no IPv6
+                // address resolved.
+                result = null;
+            }
         }
-        promise.resolve(result);
+
+        return result;
     }
 
     @Override
     public String getName() {
         return NAME;
     }
+
+    /**
+     * The result of a discovery.
+     */
+    private static class Discovery {
+        /**
+         * The {@link NAT64AddrInfo} which was discovered, {@code null} if
+         * the network has no NAT64 prefix.
+         */
+        final NAT64AddrInfo info;
+
+        /**
+         * When {@link #info} was discovered.
+         */
+        final long timestamp;
+
+        /**
+         * The IPv6 addresses by IPv4 address.
+         */
+        final LruCache<String, String> addresses = new LruCache<>(ADDRESS_CACHE_SIZE);
+
+        Discovery(NAT64AddrInfo info, long timestamp) {
+            this.info = info;
+            this.timestamp = timestamp;
+        }
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2020. cabi LLC. All rights reserved.
+ */
+package org.jitsi.meet.sdk;
+
+import com.facebook.react.bridge.JavaOnlyMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link AppliedPropsState} class.
+ */
+public class AppliedPropsStateTest {
+    private AppliedPropsState state;
+
+    @Before
+    public void setUp() {
+        state = new AppliedPropsState();
+    }
+
+    /**
+     * Props naming a room end with the conference.
+     */
+    @Test
+    public void testConferenceEnds() {
+        state.onApplied(true);
+        assertTrue(state.isLive());
+
+        state.onExternalAPIEvent("CONFERENCE_TERMINATED", new JavaOnlyMap());
+        assertFalse(state.isLive());
+    }
+
+    /**
+     * Without a room, a conference joined over the kept connection ending
+     * leaves the props live.
+     */
+    @Test
+    public void testConferenceOverKeptConnectionEnds() {
+        state.onApplied(false);
+
+        state.onExternalAPIEvent("CONFERENCE_JOINED", new JavaOnlyMap());
+        state.onExternalAPIEvent("CONFERENCE_TERMINATED", new JavaOnlyMap());
+        assertTrue(state.isLive());
+    }
+
+    /**
+     * Without a room, the connection ending lets the same props connect again.
+     */
+    @Test
+    public void testReconnectAfterDisconnect() {
+        state.onApplied(false);
+
+        state.onExternalAPIEvent("XMPP_RESULT", xmppResult("xmpp_connection_established"));
+        assertTrue(state.isLive());
+
+        state.onExternalAPIEvent("XMPP_RESULT", xmppResult("xmpp_connection_disconnected"));
+        state.onExternalAPIEvent("CONFERENCE_TERMINATED", new JavaOnlyMap());
+        assertFalse(state.isLive());
+
+        // xmppConnect with the same options again.
+        state.onApplied(false);
+        assertTrue(state.isLive());
+    }
+
+    /**
+     * A failed connection ends the props, with or without a room.
+     */
+    @Test
+    public void testConnectionFailed() {
+        state.onApplied(false);
+        state.onExternalAPIEvent("XMPP_RESULT", xmppResult("xmpp_connection_failed"));
+        assertFalse(state.isLive());
+
+        state.onApplied(true);
+        state.onExternalAPIEvent("XMPP_RESULT", xmppResult("xmpp_connection_failed"));
+        assertFalse(state.isLive());
+    }
+
+    /**
+     * Other XMPP results, e.g. chat messages, don't end the props.
+     */
+    @Test
+    public void testOtherXmppResults() {
+        state.onApplied(false);
+
+        state.onExternalAPIEvent("XMPP_RESULT", xmppResult("chat_message"));
+        state.onExternalAPIEvent("XMPP_RESULT", new JavaOnlyMap());
+        state.onExternalAPIEvent("XMPP_RESULT", null);
+        assertTrue(state.isLive());
+    }
+
+    @Test
+    public void testInvalidate() {
+        state.onApplied(true);
+        state.invalidate();
+        assertFalse(state.isLive());
+    }
+
+    private static JavaOnlyMap xmppResult(String type) {
+        return JavaOnlyMap.of("type", type, "value", "{}");
+    }
+}
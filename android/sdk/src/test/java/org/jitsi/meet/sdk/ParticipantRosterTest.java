@@ -0,0 +1,208 @@
+/*
+ * Copyright © 2020. cabi LLC. All rights reserved.
+ */
+package org.jitsi.meet.sdk;
+
+import com.facebook.react.bridge.JavaOnlyMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ParticipantRoster} class.
+ */
+public class ParticipantRosterTest {
+    private ParticipantRoster roster;
+
+    @Before
+    public void setUp() {
+        roster = new ParticipantRoster();
+        roster.onExternalAPIEvent("CONFERENCE_WILL_JOIN", new JavaOnlyMap());
+    }
+
+    /**
+     * The local participant is added with the conference, remote ones with
+     * their events.
+     */
+    @Test
+    public void testLocalAndRemoteParticipants() {
+        roster.onExternalAPIEvent(
+            "CONFERENCE_JOINED",
+            JavaOnlyMap.of("url", "https://meet.example.com/room", "userId", "me", "displayName", "Me"));
+        join("a");
+
+        assertEquals(2, roster.size());
+        assertTrue(roster.getParticipant("me").isLocal());
+        assertEquals("Me", roster.getParticipant("me").getDisplayName());
+        assertFalse(roster.getParticipant("a").isLocal());
+        assertEquals(2, roster.getVersion());
+    }
+
+    /**
+     * Several changes of the same participant are merged.
+     */
+    @Test
+    public void testDiffMerge() {
+        join("a");
+        join("b");
+
+        long version = roster.getVersion();
+
+        join("c");
+        leave("a");
+        join("d");
+        leave("d");     // Joined and left: not reported.
+        join("b");      // Joined again: reported as added.
+        leave("x");     // Unknown: not a change.
+
+        ParticipantRoster.Diff diff = roster.getDiffSince(version);
+
+        assertFalse(diff.isReset());
+        assertEquals(version, diff.getFromVersion());
+        assertEquals(roster.getVersion(), diff.getToVersion());
+        assertEquals(Collections.singletonList("a"), diff.getRemoved());
+        assertEquals(sorted("b", "c"), ids(diff.getAdded()));
+
+        ParticipantRoster.Diff empty = roster.getDiffSince(diff.getToVersion());
+
+        assertFalse(empty.isReset());
+        assertTrue(empty.getAdded().isEmpty());
+        assertTrue(empty.getRemoved().isEmpty());
+    }
+
+    /**
+     * A display name change is a change, reported as added.
+     */
+    @Test
+    public void testRename() {
+        join("a");
+
+        long version = roster.getVersion();
+
+        roster.onExternalAPIEvent(
+            "PARTICIPANT_UPDATED",
+            JavaOnlyMap.of("userId", "a", "displayName", "Alice"));
+
+        ParticipantRoster.Diff diff = roster.getDiffSince(version);
+
+        assertEquals("Alice", roster.getParticipant("a").getDisplayName());
+        assertEquals(1, diff.getAdded().size());
+        assertEquals("Alice", diff.getAdded().get(0).getDisplayName());
+        assertTrue(diff.getRemoved().isEmpty());
+
+        // The same name again is not a change.
+        roster.onExternalAPIEvent(
+            "PARTICIPANT_UPDATED",
+            JavaOnlyMap.of("userId", "a", "displayName", "Alice"));
+        assertEquals(diff.getToVersion(), roster.getVersion());
+    }
+
+    /**
+     * A diff from before the roster was emptied is a reset.
+     */
+    @Test
+    public void testDiffReset() {
+        join("a");
+
+        long version = roster.getVersion();
+
+        roster.onExternalAPIEvent("CONFERENCE_TERMINATED", new JavaOnlyMap());
+        assertEquals(0, roster.size());
+
+        join("b");
+
+        ParticipantRoster.Diff diff = roster.getDiffSince(version);
+
+        assertTrue(diff.isReset());
+        assertEquals(sorted("b"), ids(diff.getAdded()));
+        assertTrue(diff.getRemoved().isEmpty());
+
+        // From after the reset, the diff is incremental again.
+        long afterReset = roster.getVersion();
+
+        join("c");
+        assertFalse(roster.getDiffSince(afterReset).isReset());
+    }
+
+    /**
+     * A diff from before the oldest remembered change is a reset.
+     */
+    @Test
+    public void testDiffLogOverflow() {
+        join("a");
+
+        long version = roster.getVersion();
+
+        for (int i = 0; i < 600; i++) {
+            join("p" + i);
+            leave("p" + i);
+        }
+
+        ParticipantRoster.Diff diff = roster.getDiffSince(version);
+
+        assertTrue(diff.isReset());
+        assertEquals(sorted("a"), ids(diff.getAdded()));
+
+        // Within the log, merged to nothing.
+        ParticipantRoster.Diff recent = roster.getDiffSince(roster.getVersion() - 1000);
+
+        assertFalse(recent.isReset());
+        assertTrue(recent.getAdded().isEmpty());
+        assertTrue(recent.getRemoved().isEmpty());
+    }
+
+    /**
+     * Snapshots are shared until the next change.
+     */
+    @Test
+    public void testSnapshot() {
+        join("a");
+
+        ParticipantRoster.Snapshot snapshot = roster.getSnapshot();
+
+        assertSame(snapshot, roster.getSnapshot());
+        assertEquals(roster.getVersion(), snapshot.getVersion());
+
+        join("b");
+
+        assertNotSame(snapshot, roster.getSnapshot());
+        assertEquals(1, snapshot.getParticipants().size());
+        assertEquals(2, roster.getSnapshot().getParticipants().size());
+    }
+
+    private void join(String id) {
+        roster.onExternalAPIEvent(
+            "PARTICIPANT_JOINED",
+            JavaOnlyMap.of("userId", id, "local", false));
+    }
+
+    private void leave(String id) {
+        roster.onExternalAPIEvent("PARTICIPANT_LEFT", JavaOnlyMap.of("userId", id));
+    }
+
+    private static List<String> ids(List<ParticipantRoster.Participant> participants) {
+        List<String> ids = new ArrayList<>();
+
+        for (ParticipantRoster.Participant participant : participants) {
+            ids.add(participant.getId());
+        }
+        Collections.sort(ids);
+
+        return ids;
+    }
+
+    private static List<String> sorted(String... ids) {
+        List<String> list = new ArrayList<>();
+
+        Collections.addAll(list, ids);
+        Collections.sort(list);
+
+        return list;
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright © 2020. cabi LLC. All rights reserved.
+ */
+package org.jitsi.meet.sdk.log;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link JitsiMeetFileLogHandler} class.
+ */
+public class JitsiMeetFileLogHandlerTest {
+    private static final int SEGMENT_SIZE = 128;
+
+    private static final int SEGMENT_COUNT = 3;
+
+    /**
+     * The size of the header of a segment.
+     */
+    private static final int HEADER_SIZE = 16;
+
+    /**
+     * {@code android.util.Log.INFO}.
+     */
+    private static final int INFO = 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * The logs written before the handler is closed are kept and appended to
+     * by the next handler.
+     */
+    @Test
+    public void testWriteReopenRecover() throws IOException {
+        File directory = folder.newFolder();
+        JitsiMeetFileLogHandler handler = newHandler(directory);
+
+        handler.doLog(INFO, "tag", "one");
+        handler.doLog(INFO, "tag", "two");
+        assertEquals(Arrays.asList("one", "two"), export(handler));
+        handler.close();
+
+        handler = newHandler(directory);
+        assertEquals(Arrays.asList("one", "two"), export(handler));
+
+        handler.doLog(INFO, "tag", "three");
+        assertEquals(Arrays.asList("one", "two", "three"), export(handler));
+        handler.close();
+    }
+
+    /**
+     * A record whose length doesn't make sense (e.g. the process died while
+     * it was written) ends the records of its segment, and is overwritten by
+     * the next record.
+     */
+    @Test
+    public void testTornLastRecord() throws IOException {
+        File directory = folder.newFolder();
+        JitsiMeetFileLogHandler handler = newHandler(directory);
+
+        handler.doLog(INFO, "tag", "one");
+        handler.doLog(INFO, "tag", "two");
+        handler.close();
+
+        // Corrupt the length of the second record of the first segment.
+        RandomAccessFile file
+            = new RandomAccessFile(new File(directory, "jitsi-meet-0.log"), "rw");
+
+        try {
+            file.seek(HEADER_SIZE);
+
+            int firstLength = file.readInt();
+
+            file.seek(HEADER_SIZE + 4 + firstLength);
+            file.writeInt(Integer.MAX_VALUE);
+        } finally {
+            file.close();
+        }
+
+        handler = newHandler(directory);
+        assertEquals(Arrays.asList("one"), export(handler));
+
+        handler.doLog(INFO, "tag", "three");
+        assertEquals(Arrays.asList("one", "three"), export(handler));
+        handler.close();
+
+        // The records written after the recovery survive a reopening too.
+        handler = newHandler(directory);
+        assertEquals(Arrays.asList("one", "three"), export(handler));
+        handler.close();
+    }
+
+    /**
+     * Once all the segments are full the oldest ones are reused, and the
+     * export gives the most recent logs, oldest first.
+     */
+    @Test
+    public void testExportAfterWrap() throws IOException {
+        File directory = folder.newFolder();
+        JitsiMeetFileLogHandler handler = newHandler(directory);
+        int count = 50;
+
+        for (int i = 0; i < count; i++) {
+            handler.doLog(INFO, "tag", String.format("message %02d", i));
+        }
+
+        List<String> messages = export(handler);
+
+        // Less than what was written, more than one segment's worth.
+        assertTrue(messages.size() < count);
+        assertTrue(messages.size() > SEGMENT_SIZE / (4 + 9 + 10));
+
+        // A gapless run of the last messages.
+        int first = count - messages.size();
+
+        for (int i = 0; i < messages.size(); i++) {
+            assertEquals(String.format("message %02d", first + i), messages.get(i));
+        }
+
+        // The same after reopening.
+        handler.close();
+        handler = newHandler(directory);
+        assertEquals(messages, export(handler));
+        handler.close();
+    }
+
+    /**
+     * Reused segments only give their new records, not the old ones left past
+     * them.
+     */
+    @Test
+    public void testWrapOverLongerRecords() throws IOException {
+        File directory = folder.newFolder();
+        JitsiMeetFileLogHandler handler = newHandler(directory);
+        List<String> written = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            written.add(String.format("a much longer message %02d", i));
+        }
+        for (int i = 0; i < 15; i++) {
+            written.add(String.format("s%02d", i));
+        }
+        for (String message : written) {
+            handler.doLog(INFO, "tag", message);
+        }
+
+        List<String> messages = export(handler);
+
+        assertEquals(written.subList(written.size() - messages.size(), written.size()), messages);
+
+        handler.close();
+        handler = newHandler(directory);
+        assertEquals(messages, export(handler));
+        handler.close();
+    }
+
+    /**
+     * A message which doesn't fit a segment is truncated.
+     */
+    @Test
+    public void testTruncatedMessage() throws IOException {
+        JitsiMeetFileLogHandler handler = newHandler(folder.newFolder());
+        StringBuilder message = new StringBuilder();
+
+        for (int i = 0; i < SEGMENT_SIZE; i++) {
+            message.append('x');
+        }
+        handler.doLog(INFO, "tag", message.toString());
+
+        List<String> messages = export(handler);
+
+        assertEquals(1, messages.size());
+        assertTrue(messages.get(0).length() > 0);
+        assertTrue(message.toString().startsWith(messages.get(0)));
+        handler.close();
+    }
+
+    private static JitsiMeetFileLogHandler newHandler(File directory) throws IOException {
+        return new JitsiMeetFileLogHandler(directory, SEGMENT_SIZE, SEGMENT_COUNT);
+    }
+
+    /**
+     * Exports all the logs of a handler.
+     *
+     * @return The messages, without the time and priority.
+     */
+    private static List<String> export(JitsiMeetFileLogHandler handler) throws IOException {
+        StringWriter writer = new StringWriter();
+        List<String> messages = new ArrayList<>();
+
+        handler.export(0, writer);
+
+        for (String line : writer.toString().split("\n")) {
+            if (!line.isEmpty()) {
+                // yyyy-MM-dd HH:mm:ss.SSS P message
+                String[] parts = line.split(" ", 4);
+
+                assertEquals("I", parts[2]);
+                messages.add(parts[3]);
+            }
+        }
+
+        return messages;
+    }
+}
@@ -137,6 +137,14 @@ public class NAT64AddrInfoTest {
     public void testInvalidIPv4Format() {
         testInvalidIPv4Format("256.1.2.3");
         testInvalidIPv4Format("FE80:CD00:0000:0CDA:1357:0000:212F:749C");
+        testInvalidIPv4Format("1.2.3");
+        testInvalidIPv4Format("1.2.3.4.5");
+        testInvalidIPv4Format("1..2.3");
+        testInvalidIPv4Format("1.2.3.");
+        testInvalidIPv4Format("");
+
+        // Host names must not be resolved.
+        testInvalidIPv4Format("localhost");
     }
 
     private void testInvalidIPv4Format(String ipv4Str) {
@@ -82,7 +82,8 @@
  * Called whenever local connectivity stats is updated.
  *
  * The `data` dictionary contains:
- * - stats string
+ * - stats: the local connection quality (percentage, as an NSNumber). It
+ *   used to be an NSString.
 */
 - (void)localStatsEvent:(NSDictionary *)data;
 
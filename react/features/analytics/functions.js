@@ -75,6 +75,8 @@ export function createHandlers({ getState }: { getState: Function }) {
     } = config;
     const {
         amplitudeAPPKey,
+        amplitudeAggregatedEvents,
+        amplitudeSamplingRates,
         blackListedEvents,
         scriptURLs,
         googleAnalyticsTrackingId,
@@ -85,6 +87,8 @@ export function createHandlers({ getState }: { getState: Function }) {
     const { group, user } = state['features/base/jwt'];
     const handlerConstructorOptions = {
         amplitudeAPPKey,
+        amplitudeAggregatedEvents,
+        amplitudeSamplingRates,
         blackListedEvents,
         envType: (deploymentInfo && deploymentInfo.envType) || 'dev',
         googleAnalyticsTrackingId,
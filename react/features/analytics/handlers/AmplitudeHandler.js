@@ -1,6 +1,19 @@
 import AbstractHandler from './AbstractHandler';
 import { amplitude, fixDeviceID } from './amplitude';
 
+/**
+ * The event types which are aggregated natively by default, i.e. sent as
+ * counters and histograms of the given property once per batch instead of one
+ * by one, when they are not ignored. These are the stats-like events which
+ * are sent often.
+ */
+const DEFAULT_AGGREGATED_EVENTS = {
+    'e2e_rtt': 'rtt',
+    'ice.duration': 'value',
+    'peer.conn.status.duration': 'value',
+    'stream.switch.delay': 'value'
+};
+
 /**
  * Analytics handler for Amplitude.
  */
@@ -11,11 +24,23 @@ export default class AmplitudeHandler extends AbstractHandler {
      * @param {Object} options -
      * @param {string} options.amplitudeAPPKey - The Amplitude app key required
      * by the Amplitude API.
+     * @param {Object} [options.amplitudeAggregatedEvents] - The property to
+     * summarize (or null to only count the events) by event type to aggregate,
+     * on top of {@code DEFAULT_AGGREGATED_EVENTS}. A false value stops the
+     * aggregation of a type aggregated by default.
+     * @param {Object} [options.amplitudeSamplingRates] - The fraction of the
+     * events which are sent, from 0 to 1, by event type.
      */
     constructor(options) {
         super(options);
 
-        const { amplitudeAPPKey, host, user } = options;
+        const {
+            amplitudeAPPKey,
+            amplitudeAggregatedEvents = {},
+            amplitudeSamplingRates = {},
+            host,
+            user
+        } = options;
 
         if (!amplitudeAPPKey) {
             throw new Error('Failed to initialize Amplitude handler, no APP key');
@@ -29,12 +54,41 @@ export default class AmplitudeHandler extends AbstractHandler {
 
         amplitude.getInstance(this._amplitudeOptions).init(amplitudeAPPKey, undefined, { includeReferrer: true });
         fixDeviceID(amplitude.getInstance(this._amplitudeOptions));
+        this._configurePipeline(
+            {
+                ...DEFAULT_AGGREGATED_EVENTS,
+                ...amplitudeAggregatedEvents
+            },
+            amplitudeSamplingRates);
 
         if (user) {
             amplitude.getInstance(this._amplitudeOptions).setUserId(user);
         }
     }
 
+    /**
+     * Configures which event types are aggregated and sampled before they are
+     * sent.
+     *
+     * @param {Object} aggregatedEvents - The property to summarize by event
+     * type, false for the types not to aggregate.
+     * @param {Object} samplingRates - The sampling rate by event type.
+     * @private
+     * @returns {void}
+     */
+    _configurePipeline(aggregatedEvents, samplingRates) {
+        const instance = amplitude.getInstance(this._amplitudeOptions);
+
+        Object.keys(aggregatedEvents).forEach(eventType => {
+            const valueProperty = aggregatedEvents[eventType];
+
+            instance.setAggregated(eventType, valueProperty || null, valueProperty !== false);
+        });
+        Object.keys(samplingRates).forEach(eventType => {
+            instance.setSamplingRate(eventType, samplingRates[eventType]);
+        });
+    }
+
     /**
      * Sets the Amplitude user properties.
      *
@@ -69,6 +69,33 @@ class Amplitude {
             this._instanceName, eventType, JSON.stringify(eventProperties));
     }
 
+    /**
+     * Sets the fraction of the events of a specific type which are sent. Not
+     * supported on all platforms.
+     *
+     * @param {string} eventType - The type of the events.
+     * @param {number} rate - From 0 (none) to 1 (all, the default).
+     * @returns {void}
+     */
+    setSamplingRate(eventType, rate) {
+        AmplitudeNative.setSamplingRate && AmplitudeNative.setSamplingRate(eventType, rate);
+    }
+
+    /**
+     * Sets whether the events of a specific type are aggregated natively into
+     * counters / histograms instead of being sent one by one. Not supported on
+     * all platforms.
+     *
+     * @param {string} eventType - The type of the events.
+     * @param {string|null} valueProperty - The numeric event property to
+     * summarize, if any.
+     * @param {boolean} aggregate - Whether to aggregate the events.
+     * @returns {void}
+     */
+    setAggregated(eventType, valueProperty, aggregate = true) {
+        AmplitudeNative.setAggregated && AmplitudeNative.setAggregated(eventType, valueProperty, aggregate);
+    }
+
 }
 
 /**
@@ -1,5 +1,6 @@
 // @flow
 
+import _ from 'lodash';
 import React, { Fragment } from 'react';
 import { NativeEventEmitter, NativeModules } from 'react-native';
 
@@ -49,9 +50,28 @@ export type Props = {
     /**
      * Conference config as json string.
      */
-    configJsonString: ?string
+    configJsonString: ?string,
+
+    /**
+     * Hash of {@code configJsonString}, computed by the native side.
+     */
+    configHash: ?string
 };
 
+/**
+ * The config parsed last, along with the hash of the string it was parsed
+ * from. Rejoins typically come with the same config, which doesn't need to be
+ * parsed again. Never handed out as is: joining overrides the config with the
+ * URL params in place, which must not leak into the next joins.
+ */
+let lastParsedConfig: ?{ config: Object, hash: string };
+
+/**
+ * The hash of the config stored last, along with the server URL it was stored
+ * for. Storing the same config again is skipped.
+ */
+let lastStoredConfig: ?{ hash: string, url: string };
+
 /**
  * Base (abstract) class for main App component.
  *
@@ -179,9 +199,9 @@ export class AbstractApp extends BaseApp<Props, *> {
     _connectToXmppServer() {
         // handle config set by native app
         try {
-            const config = JSON.parse(this.props.configJsonString);
+            const config = this._parseConfig();
 
-            this._storeConfig(config);
+            this._storeConfig(config, this.props.configHash);
             this.state.store.dispatch(appConnect(config, this.props.userInfo.userId, this.props.userInfo.password));
             this._subscribeToNativeEvents();
         } catch (err) {
@@ -196,17 +216,53 @@ export class AbstractApp extends BaseApp<Props, *> {
     }
 
     /**
-     * Stores config from props.
+     * Parses the config from props, reusing the result of the last parsing if
+     * the config didn't change.
+     *
+     * @private
+     * @returns {Object} A config object of its own, which the caller may
+     * modify.
+     */
+    _parseConfig() {
+        const { configHash, configJsonString } = this.props;
+
+        if (configHash && lastParsedConfig && lastParsedConfig.hash === configHash) {
+            return _.cloneDeep(lastParsedConfig.config);
+        }
+
+        const config = JSON.parse(configJsonString);
+
+        lastParsedConfig = configHash ? {
+            config: _.cloneDeep(config),
+            hash: configHash
+        } : undefined;
+
+        return config;
+    }
+
+    /**
+     * Stores config from props, unless the same config was stored last for
+     * the same server.
      *
      * @param {Object} config - Xmpp config object.
+     * @param {?string} configHash - The hash of the config.
      * @private
      * @returns {void}
      */
-    _storeConfig(config) {
+    _storeConfig(config, configHash) {
         const url = `${this.props.url.serverURL}`;
 
+        if (configHash && lastStoredConfig && lastStoredConfig.hash === configHash && lastStoredConfig.url === url) {
+            return;
+        }
+
         logger.info('Config from native app: \n', config);
         this.state.store.dispatch(storeConfig(url, config));
+
+        lastStoredConfig = configHash ? {
+            hash: configHash,
+            url
+        } : undefined;
     }
 
     /**
@@ -219,10 +275,35 @@ export class AbstractApp extends BaseApp<Props, *> {
         this._unsubscribeFromNativeEvents();
         const VideoConfBridge = NativeModules.VideoConfBridge;
         const videoConfBridgeEmitter = new NativeEventEmitter(VideoConfBridge);
+        const handlers = this._getNativeEventHandlers();
+
+        Object.keys(handlers).forEach(eventName =>
+            this.nativeEventListeners.push(videoConfBridgeEmitter.addListener(eventName, handlers[eventName])));
+
+        // Android sends the events queued during one tick as a single batch.
+        this.nativeEventListeners.push(videoConfBridgeEmitter.addListener(NativeEvents.VIDEOCONF_BATCH,
+            (events: Array<{ name: string, data: any }>) => events.forEach(({ name, data }) => {
+                const handler = handlers[name];
+
+                if (handler) {
+                    handler(data);
+                } else {
+                    logger.warn(`Unhandled native event: ${name}`);
+                }
+            })));
+    }
+
+    /**
+     * Creates the handlers of the events sent by native app, keyed by event name.
+     *
+     * @private
+     * @returns {Object}
+     */
+    _getNativeEventHandlers() {
         const dispatch = this.state.store.dispatch;
 
-        this.nativeEventListeners.push(videoConfBridgeEmitter.addListener(NativeEvents.VIDEOCONF_JOIN,
-            (dataJsonString: string) => {
+        return {
+            [NativeEvents.VIDEOCONF_JOIN]: (dataJsonString: string) => {
                 const { roomName, audioMuted, videoMuted, noCam, noMic, commandsToListenTo,
                     maxReceiverVideoResolution, preferredSenderVideoResolution }
                     = JSON.parse(dataJsonString);
@@ -231,41 +312,33 @@ export class AbstractApp extends BaseApp<Props, *> {
                 dispatch(setMaxReceiverVideoQuality(maxReceiverVideoResolution));
                 dispatch(appJoinRoom(this.props.url.serverURL, roomName,
                     audioMuted, videoMuted, noCam, noMic, commandsToListenTo, preferredSenderVideoResolution));
-            }));
-        this.nativeEventListeners.push(videoConfBridgeEmitter.addListener(NativeEvents.VIDEOCONF_LEAVE,
-            () => dispatch(appLeaveRoom())));
-        this.nativeEventListeners.push(videoConfBridgeEmitter.addListener(NativeEvents.MUTE_MEDIA,
-            (dataJsonString: string) => dispatch(muteMedia(dataJsonString, this.state.store.dispatch))));
-        this.nativeEventListeners.push(videoConfBridgeEmitter.addListener(NativeEvents.SWITCH_CAMERA,
-            () => dispatch(toggleCameraFacingMode())));
-        this.nativeEventListeners.push(videoConfBridgeEmitter.addListener(NativeEvents.SEND_COMMAND,
-            (dataJsonString: string) => dispatch(sendCommand(dataJsonString))));
-        this.nativeEventListeners.push(videoConfBridgeEmitter.addListener(NativeEvents.REMOVE_COMMAND,
-            (commandName: string) => dispatch(removeCommand(commandName))));
-        this.nativeEventListeners.push(videoConfBridgeEmitter.addListener(NativeEvents.SET_CURRENT_SWIPER_INDEX,
-            (pageNumber: string) => dispatch(updateSwiperIndex(Number(pageNumber)))));
-        this.nativeEventListeners.push(videoConfBridgeEmitter.addListener(NativeEvents.SHOW_WRAP_UP_BUTTONS,
-            () => dispatch(showWrapUpButtons())));
-        this.nativeEventListeners.push(videoConfBridgeEmitter.addListener(NativeEvents.PLACEHOLDER_DATA,
-            (dataJsonString: string) => {
+            },
+            [NativeEvents.VIDEOCONF_LEAVE]: () => dispatch(appLeaveRoom()),
+            [NativeEvents.MUTE_MEDIA]: (dataJsonString: string) =>
+                dispatch(muteMedia(dataJsonString, this.state.store.dispatch)),
+            [NativeEvents.SWITCH_CAMERA]: () => dispatch(toggleCameraFacingMode()),
+            [NativeEvents.SEND_COMMAND]: (dataJsonString: string) => dispatch(sendCommand(dataJsonString)),
+            [NativeEvents.REMOVE_COMMAND]: (commandName: string) => dispatch(removeCommand(commandName)),
+            [NativeEvents.SET_CURRENT_SWIPER_INDEX]: (pageNumber: string) =>
+                dispatch(updateSwiperIndex(Number(pageNumber))),
+            [NativeEvents.SHOW_WRAP_UP_BUTTONS]: () => dispatch(showWrapUpButtons()),
+            [NativeEvents.PLACEHOLDER_DATA]: (dataJsonString: string) => {
                 const { title, imageUrl } = JSON.parse(dataJsonString);
 
                 dispatch(setPlaceholderData(title, imageUrl));
-            }));
-        this.nativeEventListeners.push(videoConfBridgeEmitter.addListener(NativeEvents.SET_COUNTDOWN,
-            (jsonString: string) => {
+            },
+            [NativeEvents.SET_COUNTDOWN]: (jsonString: string) => {
                 const { fromDateString, toDateString } = JSON.parse(jsonString);
 
                 dispatch(setCountdown(fromDateString, toDateString));
-            }));
-        this.nativeEventListeners.push(videoConfBridgeEmitter.addListener(NativeEvents.SHOW_SPEAKER_VIEW,
-            (showSpeakerView: boolean | number) => dispatch(editSpeakerViewVisibility(Boolean(showSpeakerView)))));
-        this.nativeEventListeners.push(videoConfBridgeEmitter.addListener(NativeEvents.UPDATE_USER_AVATAR,
-            (jsonString: string) => dispatch(updateUserAvatar(jsonString))));
-        this.nativeEventListeners.push(videoConfBridgeEmitter.addListener(NativeEvents.MUTE_CONFERENCE_AUDIO,
-            (mute: boolean) => dispatch(muteConferenceAudio(mute))));
-        this.nativeEventListeners.push(videoConfBridgeEmitter.addListener(NativeEvents.SET_IS_SIMPLIFIED_CONFERENCE,
-            (isSimplifiedConference: boolean) => dispatch(isSimplifiedConferenceChange(isSimplifiedConference))));
+            },
+            [NativeEvents.SHOW_SPEAKER_VIEW]: (showSpeakerView: boolean | number) =>
+                dispatch(editSpeakerViewVisibility(Boolean(showSpeakerView))),
+            [NativeEvents.UPDATE_USER_AVATAR]: (jsonString: string) => dispatch(updateUserAvatar(jsonString)),
+            [NativeEvents.MUTE_CONFERENCE_AUDIO]: (mute: boolean) => dispatch(muteConferenceAudio(mute)),
+            [NativeEvents.SET_IS_SIMPLIFIED_CONFERENCE]: (isSimplifiedConference: boolean) =>
+                dispatch(isSimplifiedConferenceChange(isSimplifiedConference))
+        };
     }
 
     _unsubscribeFromNativeEvents() {
@@ -1,9 +1,11 @@
 // @flow
 
 import React from 'react';
+import { DeviceEventEmitter } from 'react-native';
 
 import { setColorScheme } from '../../base/color-scheme';
 import { setTabletDesign } from '../../base/conference';
+import { NativeEvents } from '../../base/constants';
 import { DialogContainer } from '../../base/dialog';
 import { updateFlags } from '../../base/flags/actions';
 import {
@@ -54,6 +56,7 @@ type Props = AbstractAppProps & {
  */
 export class App extends AbstractApp {
     _init: Promise<*>;
+    _propsUpdateListener: ?Object;
 
     /**
      * Initializes a new {@code App} instance.
@@ -72,6 +75,7 @@ export class App extends AbstractApp {
 
         // Bind event handler so it is only bound once per instance.
         this._onDimensionsChanged = this._onDimensionsChanged.bind(this);
+        this._onPropsUpdate = this._onPropsUpdate.bind(this);
     }
 
     /**
@@ -89,7 +93,7 @@ export class App extends AbstractApp {
 
             // We set these early enough so then we avoid any unnecessary re-renders.
             dispatch(setColorScheme(this.props.colorScheme));
-            dispatch(updateFlags(this.props.flags));
+            this._applyFlags(this.props.flags);
 
             // Check if serverURL is configured externally and not allowed to change.
             const serverURLChangeEnabled = getFeatureFlag(getState(), SERVER_URL_CHANGE_ENABLED, true);
@@ -107,19 +111,50 @@ export class App extends AbstractApp {
 
             dispatch(updateSettings(this.props.userInfo || {}));
 
-            // Update settings with feature-flag.
-            const tabletDesignEnabled = this.props.flags[TABLET_DESIGN_ENABLED];
+            // Android updates colorScheme and flags in place instead of
+            // re-rendering with new props.
+            this._propsUpdateListener = DeviceEventEmitter.addListener(NativeEvents.PROPS_UPDATE, this._onPropsUpdate);
+        });
+    }
 
-            if (typeof tabletDesignEnabled !== 'undefined') {
-                dispatch(setTabletDesign(tabletDesignEnabled));
-            }
+    /**
+     * Removes the props update listener.
+     *
+     * @inheritdoc
+     */
+    componentWillUnmount() {
+        super.componentWillUnmount();
 
-            const callIntegrationEnabled = this.props.flags[CALL_INTEGRATION_ENABLED];
+        if (this._propsUpdateListener) {
+            this._propsUpdateListener.remove();
+            this._propsUpdateListener = undefined;
+        }
+    }
 
-            if (typeof callIntegrationEnabled !== 'undefined') {
-                dispatch(updateSettings({ disableCallIntegration: !callIntegrationEnabled }));
-            }
-        });
+    /**
+     * Stores the feature flags and the settings derived from them.
+     *
+     * @param {Object} flags - The feature flags.
+     * @private
+     * @returns {void}
+     */
+    _applyFlags(flags: Object = {}) {
+        const { dispatch } = this.state.store;
+
+        dispatch(updateFlags(flags));
+
+        // Update settings with feature-flag.
+        const tabletDesignEnabled = flags[TABLET_DESIGN_ENABLED];
+
+        if (typeof tabletDesignEnabled !== 'undefined') {
+            dispatch(setTabletDesign(tabletDesignEnabled));
+        }
+
+        const callIntegrationEnabled = flags[CALL_INTEGRATION_ENABLED];
+
+        if (typeof callIntegrationEnabled !== 'undefined') {
+            dispatch(updateSettings({ disableCallIntegration: !callIntegrationEnabled }));
+        }
     }
 
     /**
@@ -176,6 +211,32 @@ export class App extends AbstractApp {
 
     _onDimensionsChanged: (width: number, height: number) => void;
 
+    _onPropsUpdate: (Object) => void;
+
+    /**
+     * Applies the props which the native side changed without re-rendering
+     * this {@code App}.
+     *
+     * @param {Object} event - The props update event.
+     * @param {string} event.externalAPIScope - The native view the props
+     * belong to.
+     * @param {Object} event.props - The changed props.
+     * @private
+     * @returns {void}
+     */
+    _onPropsUpdate({ externalAPIScope, props }) {
+        if (externalAPIScope !== this.props.externalAPIScope) {
+            return;
+        }
+
+        if ('colorScheme' in props) {
+            this.state.store.dispatch(setColorScheme(props.colorScheme));
+        }
+        if ('flags' in props) {
+            this._applyFlags(props.flags || undefined);
+        }
+    }
+
     /**
      * Updates the known available size for the app to occupy.
      *
@@ -258,11 +258,24 @@ export const SWIPE_EVENT = 'SWIPE_EVENT';
  *
  * {
  *     type: LOCAL_STATS_EVENT,
- *     stats: string
+ *     stats: number
  * }
  */
 export const LOCAL_STATS_EVENT = 'LOCAL_STATS_EVENT';
 
+/**
+ * The type of (redux) action which sends the local connectivity statistics to
+ * the native app, at most every 5 seconds, for the native features which
+ * follow them. Unlike {@link LOCAL_STATS_EVENT} it's not delivered to the
+ * native listeners.
+ *
+ * {
+ *     type: LOCAL_STATS_SAMPLE,
+ *     sample: Object
+ * }
+ */
+export const LOCAL_STATS_SAMPLE = 'LOCAL_STATS_SAMPLE';
+
 /**
  * The type of (redux) action which send time to shop button event data to native app.
  *
@@ -118,8 +118,8 @@ export function connect(id: ?string, password: ?string) {
         });
 
         /**
-         * Dispatches {@code CONNECTION_DISCONNECTED} action when connection is
-         * disconnected.
+         * Tells the native app and dispatches {@code CONNECTION_DISCONNECTED}
+         * action when connection is disconnected.
          *
          * @private
          * @returns {void}
@@ -130,6 +130,7 @@ export function connect(id: ?string, password: ?string) {
                 nativeEventListeners.forEach(listener => listener.remove());
                 nativeEventListeners = [];
             }
+            dispatch(sendXmppResult(ResponseEventsToNative.CONNECTION_DISCONNECTED, {}));
             dispatch(connectionDisconnected(connection));
         }
 
@@ -16,10 +16,13 @@ export const NativeEvents = {
     SHOW_SPEAKER_VIEW: 'org.jitsi.meet:features/videoconf-bridge#show-speaker-view',
     UPDATE_USER_AVATAR: 'org.jitsi.meet:features/videoconf-bridge#update-user-avatar',
     MUTE_CONFERENCE_AUDIO: 'org.jitsi.meet:features/videoconf-bridge#mute-conference-audio',
-    SET_IS_SIMPLIFIED_CONFERENCE: 'org.jitsi.meet:features/videoconf-bridge#set-is-simplified-conference'
+    SET_IS_SIMPLIFIED_CONFERENCE: 'org.jitsi.meet:features/videoconf-bridge#set-is-simplified-conference',
+    VIDEOCONF_BATCH: 'org.jitsi.meet:features/videoconf-bridge#batch',
+    PROPS_UPDATE: 'org.jitsi.meet:features/app#props-update'
 };
 
 export const ResponseEventsToNative = {
+    CONNECTION_DISCONNECTED: 'xmpp_connection_disconnected',
     CONNECTION_ESTABLISHED: 'xmpp_connection_established',
     CONNECTION_FAILED: 'xmpp_connection_failed'
 };
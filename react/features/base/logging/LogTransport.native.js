@@ -8,6 +8,146 @@ import { format } from 'util';
 
 const { LogBridge } = NativeModules;
 
+/**
+ * The Android log priorities of the log methods.
+ */
+const PRIORITIES = {
+    trace: 2,
+    debug: 3,
+    info: 4,
+    log: 4,
+    warn: 5,
+    error: 6
+};
+
+/**
+ * The number of records after which a batch is sent right away.
+ */
+const MAX_BATCH_RECORDS = 50;
+
+/**
+ * The time after which a batch is sent, in milliseconds.
+ */
+const BATCH_DELAY_MS = 250;
+
+/**
+ * Whether the native side can take batches of records (Android only at the
+ * time of this writing).
+ */
+const batchingSupported = typeof LogBridge.logBatch === 'function';
+
+/**
+ * The number of array elements per record in {@link batch}.
+ */
+const RECORD_SIZE = 3;
+
+/**
+ * The records waiting to be sent, flattened: priority, tag and message for
+ * each record. The native side timestamps them.
+ */
+let batch = [];
+
+/**
+ * The number of records dropped because their tag was suppressed, by tag, to
+ * be sent with the next batch.
+ */
+let dropped = {};
+
+/**
+ * The timeout sending {@link batch}.
+ */
+let batchTimeout;
+
+/**
+ * The lowest priority which gets logged natively.
+ */
+let minPriority = 0;
+
+/**
+ * The tags rate limited by the native side, with the time until which their
+ * records are dropped.
+ */
+let suppressed = {};
+
+/**
+ * Gets the tag a message is rate limited by: its logger prefix, if any.
+ *
+ * @param {string} message - The message.
+ * @returns {string}
+ */
+function getTag(message) {
+    const match = /^(\[[^\]]*\]|<[^>]*>)/.exec(message);
+
+    return match ? match[1] : '';
+}
+
+/**
+ * Sends the pending records to the native side in one bridge call.
+ *
+ * @returns {void}
+ */
+function sendBatch() {
+    const records = batch;
+    const droppedRecords = dropped;
+
+    clearTimeout(batchTimeout);
+    batchTimeout = undefined;
+    batch = [];
+
+    if (!records.length) {
+        return;
+    }
+
+    dropped = {};
+
+    LogBridge.logBatch(records, droppedRecords).then(result => {
+        minPriority = result.minPriority;
+        suppressed = {
+            ...suppressed,
+            ...result.suppressed
+        };
+    }, () => {
+        // Logging must never fail the app.
+    });
+}
+
+/**
+ * Queues a record to be sent with the next batch, unless the native side
+ * would drop it anyway.
+ *
+ * @param {string} logName - The log method.
+ * @param {string} message - The formatted message.
+ * @returns {void}
+ */
+function enqueue(logName, message) {
+    const priority = PRIORITIES[logName];
+
+    if (priority < minPriority) {
+        return;
+    }
+
+    const tag = getTag(message);
+    const now = Date.now();
+    const suppressedUntil = suppressed[tag];
+
+    if (suppressedUntil && priority < PRIORITIES.error) {
+        if (now < suppressedUntil) {
+            dropped[tag] = (dropped[tag] || 0) + 1;
+
+            return;
+        }
+        delete suppressed[tag];
+    }
+
+    batch.push(priority, tag, message);
+
+    if (batch.length >= MAX_BATCH_RECORDS * RECORD_SIZE || priority >= PRIORITIES.error) {
+        sendBatch();
+    } else if (!batchTimeout) {
+        batchTimeout = setTimeout(sendBatch, BATCH_DELAY_MS);
+    }
+}
+
 /**
  * Returns the stack trace for a given @code {Error} object.
  *
@@ -56,7 +196,11 @@ function buildTransport() {
             });
             const message = format(...nargs);
 
-            LogBridge[logName](message);
+            if (batchingSupported) {
+                enqueue(logName, message);
+            } else {
+                LogBridge[logName](message);
+            }
         };
 
         return logger;
@@ -3,7 +3,8 @@
 import {
     SWIPE_EVENT,
     SHOP_BUTTON_EVENT,
-    LOCAL_STATS_EVENT
+    LOCAL_STATS_EVENT,
+    LOCAL_STATS_SAMPLE
 } from '../base/conference';
 
 import {
@@ -108,16 +109,42 @@ export function swipeEvent(index: number, total: number) {
 /**
  * Creates action which send local connectivity statistic event data to native app.
  *
- * @param {Object} stats - Local Jitsi stats object.
+ * @param {number} stats - The local connection quality, in percent.
  * @returns {{
  *     type: LOCAL_STATS_EVENT,
- *     stats: string
+ *     stats: number
  * }}
  */
-export function localStatsEvent(stats: Object) {
+export function localStatsEvent(stats: number) {
     return {
         type: LOCAL_STATS_EVENT,
-        stats: stats.toString()
+        stats
+    };
+}
+
+/**
+ * Creates action which sends a sample of the local connectivity statistics to
+ * the native app, flattened to the numbers it aggregates.
+ *
+ * @param {Object} stats - Local Jitsi stats object.
+ * @returns {{
+ *     type: LOCAL_STATS_SAMPLE,
+ *     sample: Object
+ * }}
+ */
+export function localStatsSample(stats: Object) {
+    const { bitrate = {}, packetLoss = {} } = stats;
+
+    return {
+        type: LOCAL_STATS_SAMPLE,
+        sample: {
+            connectionQuality: stats.connectionQuality,
+            bitrateDownload: bitrate.download,
+            bitrateUpload: bitrate.upload,
+            packetLossDownload: packetLoss.download,
+            packetLossUpload: packetLoss.upload,
+            rtt: stats.jvbRTT
+        }
     };
 }
 
@@ -18,6 +18,24 @@ import logger from './logger';
 const { AudioMode } = NativeModules;
 const AudioModeEmitter = new NativeEventEmitter(AudioMode);
 
+/**
+ * The version of the device list in the redux store, when the native side
+ * sends deltas of the list ({@code DEVICE_DELTA_EVENT}) rather than the whole
+ * list. -1 if the list needs to be (re)fetched.
+ */
+let _devicesVersion = -1;
+
+/**
+ * The promise of the device list fetch in progress, if any.
+ */
+let _fetchPromise: ?Promise<void>;
+
+/**
+ * The device deltas received while {@link _fetchPromise} is in progress, to be
+ * applied on top of the fetched list.
+ */
+let _pendingDeltas = [];
+
 /**
  * Middleware that captures conference actions and sets the correct audio mode
  * based on the type of conference. Audio-only conferences don't use the speaker
@@ -79,12 +97,132 @@ function _appWillMount(store) {
         AudioModeEmitter.addListener(AudioMode.DEVICE_CHANGE_EVENT, _onDevicesUpdate, store)
     ];
 
+    if (AudioMode.DEVICE_DELTA_EVENT) {
+        subscriptions.push(AudioModeEmitter.addListener(AudioMode.DEVICE_DELTA_EVENT, _onDevicesDelta, store));
+        _fetchDevices(store);
+    }
+
     store.dispatch({
         type: _SET_AUDIOMODE_SUBSCRIPTIONS,
         subscriptions
     });
 }
 
+/**
+ * Fetches the whole device list from the native side and stores it in the
+ * redux store, then applies the deltas received meanwhile. Does nothing if a
+ * fetch is already in progress.
+ *
+ * @param {Store} store - The redux store.
+ * @private
+ * @returns {void}
+ */
+function _fetchDevices(store) {
+    if (_fetchPromise) {
+        return;
+    }
+
+    _devicesVersion = -1;
+    _fetchPromise = AudioMode.getDevices()
+        .then(({ devices, version }) => {
+            const deltas = _pendingDeltas;
+
+            _fetchPromise = undefined;
+            _pendingDeltas = [];
+            _devicesVersion = version;
+            store.dispatch({
+                type: _SET_AUDIOMODE_DEVICES,
+                devices
+            });
+
+            for (const delta of deltas) {
+                _handleDelta(store, delta);
+            }
+        })
+        .catch(err => {
+            // The next delta fetches again.
+            _fetchPromise = undefined;
+            _pendingDeltas = [];
+            logger.error(`Failed to get audio devices: ${err}`);
+        });
+}
+
+/**
+ * Applies an audio device delta to the device list in the redux store, or
+ * buffers it while the list is being fetched. The list is fetched again if a
+ * delta was missed.
+ *
+ * @param {Store} store - The redux store.
+ * @param {Object} delta - The delta, see {@link _onDevicesDelta}.
+ * @private
+ * @returns {void}
+ */
+function _handleDelta(store, delta) {
+    const { added, removed, selected, version } = delta;
+
+    if (_fetchPromise) {
+        _pendingDeltas.push(delta);
+
+        return;
+    }
+    if (version <= _devicesVersion) {
+        // Already part of the fetched list.
+        return;
+    }
+    if (version !== _devicesVersion + 1) {
+        _fetchDevices(store);
+        _pendingDeltas.push(delta);
+
+        return;
+    }
+
+    _devicesVersion = version;
+
+    const hasSelected = typeof selected !== 'undefined';
+    let { devices } = store.getState()['features/mobile/audio-mode'];
+
+    if (removed.length) {
+        devices = devices.filter(({ type }) => !removed.includes(type));
+    }
+    if (hasSelected) {
+        devices = devices.map(device => {
+            const isSelected = device.type === selected;
+
+            return device.selected === isSelected ? device : {
+                ...device,
+                selected: isSelected
+            };
+        });
+    }
+    if (added.length) {
+        devices = devices.concat(added.map(type => {
+            return {
+                type,
+                selected: hasSelected && type === selected
+            };
+        }));
+    }
+
+    store.dispatch({
+        type: _SET_AUDIOMODE_DEVICES,
+        devices
+    });
+}
+
+/**
+ * Handles audio device deltas: the changes of the device list since the delta
+ * with the previous version.
+ *
+ * @param {Object} delta - The {@code version} of the list, the {@code added}
+ * and {@code removed} device types and the {@code selected} device type, if
+ * it changed or was added.
+ * @private
+ * @returns {void}
+ */
+function _onDevicesDelta(delta) {
+    _handleDelta(this, delta); // eslint-disable-line no-invalid-this
+}
+
 /**
  * Handles audio device changes. The list will be stored on the redux store.
  *
@@ -7,6 +7,7 @@ import {
     CONFERENCE_JOINED,
     CONFERENCE_LEFT,
     CONFERENCE_WILL_JOIN,
+    CONFERENCE_WILL_LEAVE,
     JITSI_CONFERENCE_URL_KEY,
     SET_ROOM,
     SWIPE_EVENT,
@@ -14,7 +15,8 @@ import {
     forEachConference,
     isRoomValid,
     SHOP_BUTTON_EVENT,
-    LOCAL_STATS_EVENT
+    LOCAL_STATS_EVENT,
+    LOCAL_STATS_SAMPLE
 } from '../../base/conference';
 import { LOAD_CONFIG_ERROR } from '../../base/config';
 import {
@@ -27,9 +29,17 @@ import {
 } from '../../base/connection';
 import { isAndroidDevice } from '../../base/environment/utils';
 import { getLogger } from '../../base/logging';
-import { SPEAKER_FRAME_VIDEO_TRACK_CHANGE, PARTICIPANT_JOINED, PARTICIPANT_LEFT } from '../../base/participants';
+import {
+    SPEAKER_FRAME_VIDEO_TRACK_CHANGE,
+    PARTICIPANT_JOINED,
+    PARTICIPANT_LEFT,
+    PARTICIPANT_UPDATED,
+    getLocalParticipant
+} from '../../base/participants';
 import { MiddlewareRegistry } from '../../base/redux';
 import { TRACK_ADDED } from '../../base/tracks';
+import { statsEmitter } from '../../connection-indicator';
+import { localStatsSample } from '../../filmstrip';
 import { ENTER_PICTURE_IN_PICTURE } from '../picture-in-picture';
 
 import { UNDEFINED_JITSI_ERROR } from './actions';
@@ -41,6 +51,19 @@ import { sendEvent } from './functions';
  */
 const CONFERENCE_TERMINATED = 'CONFERENCE_TERMINATED';
 
+/**
+ * The minimum interval between two {@code LOCAL_STATS_SAMPLE}s, in
+ * milliseconds. The stats updates in between are dropped rather than crossing
+ * the bridge.
+ */
+const LOCAL_STATS_SAMPLE_INTERVAL = 5000;
+
+/**
+ * The subscription to the local connection stats of the current conference,
+ * which feeds {@code LOCAL_STATS_SAMPLE}.
+ */
+let localStatsSubscription: ?{ callback: Function, conference: Object, id: string };
+
 /**
  * Middleware that captures Redux actions and uses the ExternalAPI module to
  * turn them into native events so the application knows about them.
@@ -57,6 +80,8 @@ MiddlewareRegistry.register(store => next => action => {
     case CONFERENCE_FAILED: {
         const { error, ...data } = action;
 
+        _unsubscribeFromLocalStats(action.conference);
+
         // XXX Certain CONFERENCE_FAILED errors are recoverable i.e. they have
         // prevented the user from joining a specific conference but the app may
         // be able to eventually join the conference. For example, the app will
@@ -76,11 +101,23 @@ MiddlewareRegistry.register(store => next => action => {
     }
 
     case CONFERENCE_JOINED:
+        _sendConferenceEvent(store, action);
+        _subscribeToLocalStats(store, action.conference);
+        break;
+
     case CONFERENCE_LEFT:
+        _sendConferenceEvent(store, action);
+        _unsubscribeFromLocalStats(action.conference);
+        break;
+
     case CONFERENCE_WILL_JOIN:
         _sendConferenceEvent(store, action);
         break;
 
+    case CONFERENCE_WILL_LEAVE:
+        _unsubscribeFromLocalStats(action.conference);
+        break;
+
     case CONNECTION_DISCONNECTED: {
         // FIXME: This is a hack. See the description in the JITSI_CONNECTION_CONFERENCE_KEY constant definition.
         // Check if this connection was attached to any conference. If it wasn't, fake a CONFERENCE_TERMINATED event.
@@ -186,6 +223,10 @@ MiddlewareRegistry.register(store => next => action => {
         break;
     }
 
+    case LOCAL_STATS_SAMPLE:
+        sendEvent(store, LOCAL_STATS_SAMPLE, action.sample);
+        break;
+
     case SHOP_BUTTON_EVENT: {
         sendEvent(store, SHOP_BUTTON_EVENT, {
             navigationTarget: action.navigationTarget
@@ -212,6 +253,9 @@ MiddlewareRegistry.register(store => next => action => {
     case PARTICIPANT_JOINED: {
         if (action.participant.id) {
             sendEvent(store, PARTICIPANT_JOINED, {
+                userId: action.participant.id,
+                local: Boolean(action.participant.local),
+                displayName: action.participant.name,
                 data: escapeBackslashes(JSON.stringify({ userId: action.participant.id,
                     remoteDescriptions: getRemoteDescriptions(store)
                 }), true)
@@ -223,6 +267,7 @@ MiddlewareRegistry.register(store => next => action => {
     case PARTICIPANT_LEFT: {
         if (action.participant.id) {
             sendEvent(store, PARTICIPANT_LEFT, {
+                userId: action.participant.id,
                 data: escapeBackslashes(JSON.stringify({ userId: action.participant.id,
                     remoteDescriptions: getRemoteDescriptions(store)
                 }), true)
@@ -230,6 +275,24 @@ MiddlewareRegistry.register(store => next => action => {
         }
         break;
     }
+
+    case PARTICIPANT_UPDATED: {
+        // Only the display name changes are of interest to the native side,
+        // the other updates (e.g. dominant speaker) are far too frequent.
+        const { participant } = action;
+
+        if (typeof participant.name !== 'undefined') {
+            const id
+                = participant.id
+                    || (participant.local && getLocalParticipant(store.getState())?.id);
+
+            id && sendEvent(store, PARTICIPANT_UPDATED, {
+                userId: id,
+                displayName: participant.name
+            });
+        }
+        break;
+    }
     }
 
     return result;
@@ -314,6 +377,11 @@ function _sendConferenceEvent(
     if (conference) {
         data.url = _normalizeUrl(conference[JITSI_CONFERENCE_URL_KEY]);
         data.userId = escapeBackslashes(conference.myUserId());
+
+        if (type === CONFERENCE_JOINED) {
+            // The local participant only gets its id with the conference.
+            data.displayName = getLocalParticipant(store.getState())?.name;
+        }
     }
 
     if (_swallowEvent(store, action, data)) {
@@ -365,6 +433,57 @@ function _sendConferenceFailedOnConnectionError(store, action) {
         });
 }
 
+/**
+ * Subscribes to the local connection stats of a conference, for the native
+ * features which follow them (see {@code LOCAL_STATS_SAMPLE}). Only the
+ * Android SDK uses them.
+ *
+ * @param {Store} store - The redux store.
+ * @param {JitsiConference} conference - The conference just joined.
+ * @private
+ * @returns {void}
+ */
+function _subscribeToLocalStats({ dispatch }, conference) {
+    _unsubscribeFromLocalStats();
+
+    if (!isAndroidDevice()) {
+        return;
+    }
+
+    const id = conference.myUserId();
+    let lastSampleTime = 0;
+    const callback = stats => {
+        const now = Date.now();
+
+        if (now - lastSampleTime >= LOCAL_STATS_SAMPLE_INTERVAL) {
+            lastSampleTime = now;
+            dispatch(localStatsSample(stats));
+        }
+    };
+
+    statsEmitter.subscribeToClientStats(id, callback);
+    localStatsSubscription = {
+        callback,
+        conference,
+        id
+    };
+}
+
+/**
+ * Stops the subscription made by {@link _subscribeToLocalStats}, if any.
+ *
+ * @param {JitsiConference} [conference] - The conference being left, if the
+ * subscription is to be stopped only if it's for that conference.
+ * @private
+ * @returns {void}
+ */
+function _unsubscribeFromLocalStats(conference) {
+    if (localStatsSubscription && (!conference || localStatsSubscription.conference === conference)) {
+        statsEmitter.unsubscribeToClientStats(localStatsSubscription.id, localStatsSubscription.callback);
+        localStatsSubscription = undefined;
+    }
+}
+
 /**
  * Determines whether to not send a {@code CONFERENCE_LEFT} event to the native
  * counterpart of the External API.